@@ -21,6 +21,7 @@ public class Ass5Game {
      */
     public static void main(String[] args) {
         Game game = new Game();
+        game.setBallCollisionsEnabled(true);
         game.initialize();
         addAss5Game(game);
         game.run();
@@ -30,10 +31,8 @@ public class Ass5Game {
     private static void addAss5Game(Game g) {
         //background
         Color backgroundColor = Color.decode("#09b9f6");
-        Block background = BlockFactory.backgroundBlock(g.getBorderThickness() + 1, g.getBorderThickness() + 1,
-                (g.getGameWidth() - 2 * g.getBorderThickness()) - 1,
-                (g.getGameHeight() - g.getBorderThickness()) - 1, backgroundColor);
-        g.addSprite(background);
+        Block background = BlockFactory.backgroundBlock(0, 0, g.getGameWidth(), g.getGameHeight(), backgroundColor);
+        g.addBackground(background);
 
         // blocks.
         Color[] colors = {
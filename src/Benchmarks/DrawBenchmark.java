@@ -0,0 +1,166 @@
+package Benchmarks;
+
+import Game.Block;
+import Game.BlockFactory;
+import Game.FrameBufferSurface;
+import Game.RenderQuality;
+import Game.Sprite;
+import Game.SpriteCollection;
+import Game.SpriteLayer;
+import Game.TiledRasterizer;
+import Geometry.Ball;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmark of drawing, headless on a Game.FrameBufferSurface: the time to draw a whole frame of a level with
+ * SpriteCollection.drawAllOn at every Game.RenderQuality, the time of Block.drawOn for one block, and the time of
+ * a large frame drawn on one thread against a Game.TiledRasterizer, checking both give the same pixels.
+ * given a directory as an argument, it also writes the frame of every quality there as a PNG file.
+ * run it with "ant benchmark".
+ */
+public class DrawBenchmark {
+    // fields
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int ROWS = 12;
+    private static final int COLUMNS = 16;
+    private static final int BALLS = 20;
+    private static final int LARGE_WIDTH = 3840;
+    private static final int LARGE_HEIGHT = 2160;
+    private static final int ROUNDS = 5;
+    private static final long MIN_NANOS_PER_ROUND = 200_000_000L;
+
+    /**
+     * Runs the benchmark and prints microseconds per frame of every quality, and nanoseconds per block.
+     *
+     * @param args an optional directory to write the frames to.
+     * @throws IOException if a frame can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        SpriteCollection sprites = level(new Random(42), WIDTH, HEIGHT);
+        FrameBufferSurface surface = new FrameBufferSurface(WIDTH, HEIGHT);
+        for (RenderQuality quality : RenderQuality.values()) {
+            sprites.setQuality(quality);
+            double best = Double.POSITIVE_INFINITY;
+            for (int round = 0; round < ROUNDS; round++) {
+                best = Math.min(best, nanosPerFrame(sprites, surface));
+            }
+            System.out.printf("%-12s %8.1f us per frame%n", quality, best / 1000);
+            if (args.length > 0) {
+                surface.writePng(new File(args[0], "frame-" + quality.name().toLowerCase() + ".png"));
+            }
+        }
+
+        Block block = BlockFactory.gameBlock(100, 100, 50, 25, Color.ORANGE);
+        long calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                block.drawOn(surface);
+            }
+            calls += 1000;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS_PER_ROUND);
+        System.out.printf("Block.drawOn %8.1f ns per block%n", (double) elapsed / calls);
+
+        SpriteCollection large = level(new Random(42), LARGE_WIDTH, LARGE_HEIGHT);
+        FrameBufferSurface single = new FrameBufferSurface(LARGE_WIDTH, LARGE_HEIGHT);
+        FrameBufferSurface tiled = new FrameBufferSurface(LARGE_WIDTH, LARGE_HEIGHT);
+        TiledRasterizer tiles = new TiledRasterizer(LARGE_WIDTH, LARGE_HEIGHT);
+        double singleBest = Double.POSITIVE_INFINITY;
+        double tiledBest = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < ROUNDS; round++) {
+            singleBest = Math.min(singleBest, nanosPerFrame(large, single));
+            tiledBest = Math.min(tiledBest, nanosPerTiledFrame(large, tiles, tiled));
+        }
+        int[] expected = single.getPixels();
+        int[] actual = tiled.getPixels();
+        int mismatches = 0;
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != actual[i]) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%dx%d: one thread %.1f us, %d tiles %.1f us per frame (x%.2f), mismatched pixels %d%n",
+                LARGE_WIDTH, LARGE_HEIGHT, singleBest / 1000, tiles.getTileCount(), tiledBest / 1000,
+                singleBest / tiledBest, mismatches);
+    }
+
+    // times recording and rasterising frames by tiles, repeated until the round is long enough to measure.
+    private static double nanosPerTiledFrame(SpriteCollection sprites, TiledRasterizer tiles,
+                                             FrameBufferSurface surface) {
+        long frames = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            tiles.reset();
+            sprites.drawAllOn(tiles);
+            surface.clear(0xFF000000);
+            tiles.render(surface);
+            frames++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS_PER_ROUND);
+        return (double) elapsed / frames;
+    }
+
+    // times drawing frames, repeated until the round is long enough to measure.
+    private static double nanosPerFrame(SpriteCollection sprites, FrameBufferSurface surface) {
+        long frames = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            surface.clear(0xFF000000);
+            sprites.drawAllOn(surface);
+            frames++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS_PER_ROUND);
+        return (double) elapsed / frames;
+    }
+
+    // a level like the game's, scaled to the frame: a background, rows of blocks of one color each, balls and a
+    // score line.
+    private static SpriteCollection level(Random random, int width, int height) {
+        SpriteCollection collection = new SpriteCollection();
+        double scale = width / (double) WIDTH;
+        collection.addSprite(BlockFactory.backgroundBlock(0, 0, width, height, new Color(20, 40, 90)),
+                SpriteLayer.BACKGROUND);
+        double blockWidth = (width - 40 * scale) / COLUMNS;
+        for (int row = 0; row < ROWS; row++) {
+            Color color = Color.getHSBColor(row / (float) ROWS, 0.7f, 0.9f);
+            for (int column = 0; column < COLUMNS; column++) {
+                collection.addSprite(BlockFactory.gameBlock(20 * scale + column * blockWidth,
+                        (60 + row * 20) * scale, blockWidth, 20 * scale, color));
+            }
+        }
+        for (int i = 0; i < BALLS; i++) {
+            collection.addSprite(new Ball(random.nextInt(width - 80) + 40, height * 7 / 12 + random.nextInt(height / 3),
+                    (int) (5 * scale), Color.WHITE));
+        }
+        collection.addSprite(new Sprite() {
+            /**
+             * Draws the score line.
+             *
+             * @param d drawSurface to draw on.
+             */
+            @Override
+            public void drawOn(DrawSurface d) {
+                d.setColor(Color.BLACK);
+                d.drawText(width / 2 - 60, 15, "Score: 1230", 15);
+            }
+
+            /**
+             * The score line doesn't change.
+             */
+            @Override
+            public void timePassed() {
+            }
+        }, SpriteLayer.HUD);
+        return collection;
+    }
+}
@@ -0,0 +1,107 @@
+package Benchmarks;
+
+import Game.CommandBuffer;
+import Game.DrawRecorder;
+import Game.FrameBufferSurface;
+import Game.TiledRasterizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark that replays frames recorded from real game sessions against the drawing backends, without a window.
+ * record a session by running the game (Ass5Game or CompatitionLevel) with -Dgame.recordFrames=FILE, then run the
+ * benchmark with the file and optionally the backends to replay on: "framebuffer" (Game.FrameBufferSurface),
+ * "tiled" (Game.TiledRasterizer) and "commands" (recording into a Game.CommandBuffer, the cost of the calls alone).
+ * it prints the commands and state (color) changes per frame of the recording, and the replay throughput of every
+ * backend. "ant record" and "ant replay" do both.
+ */
+public class ReplayBenchmark {
+    // fields
+    private static final String[] BACKENDS = {"framebuffer", "tiled", "commands"};
+    private static final int ROUNDS = 5;
+    private static final long MIN_NANOS_PER_ROUND = 200_000_000L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the recording file, then the backends to replay on (all of them if none is given).
+     * @throws IOException if the recording can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: ReplayBenchmark FILE [framebuffer|tiled|commands]...");
+            return;
+        }
+        List<CommandBuffer> frames = DrawRecorder.read(new File(args[0]));
+        if (frames.isEmpty()) {
+            System.out.println(args[0] + " has no frames");
+            return;
+        }
+        long commands = 0;
+        long stateChanges = 0;
+        int maxCommands = 0;
+        for (CommandBuffer frame : frames) {
+            commands += frame.getCommandCount();
+            stateChanges += frame.getStateChangeCount();
+            maxCommands = Math.max(maxCommands, frame.getCommandCount());
+        }
+        System.out.printf("%d frames of %dx%d: %.1f commands per frame (max %d), %.1f state changes per frame%n",
+                frames.size(), frames.get(0).getWidth(), frames.get(0).getHeight(), (double) commands / frames.size(),
+                maxCommands, (double) stateChanges / frames.size());
+
+        String[] backends = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : BACKENDS;
+        for (String backend : backends) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int round = 0; round < ROUNDS; round++) {
+                best = Math.min(best, nanosPerFrame(backend, frames));
+            }
+            System.out.printf("%-12s %9.1f us per frame, %8.1f frames/s, %6.2f M commands/s%n", backend, best / 1000,
+                    1e9 / best, commands / (double) frames.size() / best * 1000);
+        }
+    }
+
+    // replays all the frames on a backend, repeated until the round is long enough to measure.
+    private static double nanosPerFrame(String backend, List<CommandBuffer> frames) {
+        int width = frames.get(0).getWidth();
+        int height = frames.get(0).getHeight();
+        FrameBufferSurface surface = new FrameBufferSurface(width, height);
+        TiledRasterizer tiles = new TiledRasterizer(width, height);
+        CommandBuffer copy = new CommandBuffer(width, height);
+        long replayed = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (CommandBuffer frame : frames) {
+                replay(backend, frame, surface, tiles, copy);
+            }
+            replayed += frames.size();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS_PER_ROUND);
+        return (double) elapsed / replayed;
+    }
+
+    private static void replay(String backend, CommandBuffer frame, FrameBufferSurface surface,
+                               TiledRasterizer tiles, CommandBuffer copy) {
+        switch (backend) {
+            case "framebuffer":
+                surface.clear(0xFFFFFFFF);
+                frame.replay(surface);
+                break;
+            case "tiled":
+                tiles.reset();
+                frame.replay(tiles);
+                surface.clear(0xFFFFFFFF);
+                tiles.render(surface);
+                break;
+            case "commands":
+                copy.reset(frame.getFrame());
+                frame.replay(copy);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown backend " + backend);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package Benchmarks;
+
+import Game.CandidateBuffer;
+import Game.ScalarSlabKernel;
+import Game.SegmentCast;
+import Game.SlabKernel;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the slab kernels: the time to compute the entry times of one cast segment into a buffer of
+ * candidates, with the scalar kernel and with the kernel Game.SlabKernel.create picks (the vector one when
+ * the JVM runs with --add-modules jdk.incubator.vector). it also checks that both give the same entry times.
+ * run it with "ant benchmark".
+ */
+public class SlabKernelBenchmark {
+    // fields
+    private static final int[] CANDIDATE_COUNTS = {8, 32, 128, 512, 2048};
+    private static final int CASTS = 256;
+    private static final int ROUNDS = 5;
+    private static final long MIN_NANOS_PER_ROUND = 200_000_000L;
+
+    /**
+     * Runs the benchmark and prints nanoseconds per candidate of every kernel.
+     *
+     * @param args not used.
+     */
+    public static void main(String[] args) {
+        SlabKernel scalar = new ScalarSlabKernel();
+        SlabKernel best = SlabKernel.create();
+        System.out.println("kernels: " + scalar.getName() + " vs " + best.getName());
+        if (best instanceof ScalarSlabKernel) {
+            System.out.println("the vector API is not available, run with --add-modules jdk.incubator.vector");
+        }
+
+        Random random = new Random(42);
+        for (int count : CANDIDATE_COUNTS) {
+            CandidateBuffer candidates = randomCandidates(random, count);
+            SegmentCast[] casts = randomCasts(random);
+            double[] expected = new double[count];
+            double[] actual = new double[count];
+            int mismatches = 0;
+            for (SegmentCast cast : casts) {
+                int expectedFirst = scalar.entryTimes(cast, candidates, expected);
+                int actualFirst = best.entryTimes(cast, candidates, actual);
+                for (int i = 0; i < count; i++) {
+                    if (Double.compare(expected[i], actual[i]) != 0) {
+                        mismatches++;
+                    }
+                }
+                if (expectedFirst != actualFirst) {
+                    mismatches++;
+                }
+            }
+
+            double scalarNanos = Double.POSITIVE_INFINITY;
+            double bestNanos = Double.POSITIVE_INFINITY;
+            for (int round = 0; round < ROUNDS; round++) {
+                scalarNanos = Math.min(scalarNanos, nanosPerCandidate(scalar, casts, candidates, actual));
+                bestNanos = Math.min(bestNanos, nanosPerCandidate(best, casts, candidates, actual));
+            }
+            System.out.printf("%5d candidates: %s %.3f ns, %s %.3f ns per candidate (x%.2f), mismatches %d%n",
+                    count, scalar.getName(), scalarNanos, best.getName(), bestNanos, scalarNanos / bestNanos,
+                    mismatches);
+        }
+    }
+
+    // times one round of the kernel over all the casts, repeated until the round is long enough to measure.
+    private static double nanosPerCandidate(SlabKernel kernel, SegmentCast[] casts, CandidateBuffer candidates,
+                                            double[] out) {
+        long calls = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (SegmentCast cast : casts) {
+                sink += kernel.entryTimes(cast, candidates, out);
+            }
+            calls += casts.length;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_NANOS_PER_ROUND);
+        if (sink == Long.MIN_VALUE) {
+            // keeps the results alive, never true.
+            System.out.println(sink);
+        }
+        return (double) elapsed / (calls * candidates.size());
+    }
+
+    // boxes the size of game blocks scattered over an 800x600 screen.
+    private static CandidateBuffer randomCandidates(Random random, int count) {
+        CandidateBuffer candidates = new CandidateBuffer();
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * 800;
+            double y = random.nextDouble() * 600;
+            candidates.add(null, i, x, y, x + 10 + random.nextDouble() * 50, y + 10 + random.nextDouble() * 20);
+        }
+        return candidates;
+    }
+
+    // ball steps in random directions, a few of them long enough to cross many boxes.
+    private static SegmentCast[] randomCasts(Random random) {
+        SegmentCast[] casts = new SegmentCast[CASTS];
+        for (int i = 0; i < CASTS; i++) {
+            double x = random.nextDouble() * 800;
+            double y = random.nextDouble() * 600;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double length = i % 8 == 0 ? 400 : 2 + random.nextDouble() * 8;
+            casts[i] = new SegmentCast();
+            casts[i].set(x, y, x + Math.cos(angle) * length, y + Math.sin(angle) * length);
+        }
+        return casts;
+    }
+}
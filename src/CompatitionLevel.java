@@ -32,7 +32,7 @@ public class CompatitionLevel {
         Block background = new Block(g.getBorderThickness(), g.getBorderThickness(),
                 g.getGameWidth() - 2 * g.getBorderThickness(),
                 g.getGameHeight() - g.getBorderThickness(), backgroundColor);
-        g.addSprite(background);
+        g.addBackground(background);
 
         //Blocks
         Color[] colors = {
@@ -0,0 +1,223 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collision engine that runs one of the other engines, and switches between them by the number of
+ * collidables and the measured cost of the queries.
+ * small levels always use brute force. on bigger levels the engine samples the time of its queries, and
+ * every once in a while (or when the level grew or shrank a lot) it runs a period with each engine and
+ * keeps the cheapest one.
+ */
+public class AutoCollisionEngine implements CollisionEngine {
+    // fields
+    private static final CollisionEngineType[] CANDIDATES = {
+            CollisionEngineType.BRUTE_FORCE,
+            CollisionEngineType.GRID,
+            CollisionEngineType.TREE,
+            CollisionEngineType.TILE_MAP
+    };
+    private static final int SMALL_LEVEL = 48;
+    private static final int PERIOD = 512;
+    private static final int SAMPLE_EVERY = 8;
+    private static final int PERIODS_BETWEEN_TRIALS = 64;
+    // the current engine is kept unless another one was measured this much cheaper.
+    private static final double SWITCH_MARGIN = 0.8;
+
+    private final double worldWidth;
+    private final double worldHeight;
+    private final Map<Collidable, Integer> orders = new LinkedHashMap<>();
+    private CollisionEngineType currentType;
+    private CollisionEngine current;
+
+    // measured cost (nanoseconds per query) of every candidate, and the size it was measured at.
+    private final double[] costs = new double[CANDIDATES.length];
+    private final int[] costSizes = new int[CANDIDATES.length];
+    private int queries = 0;
+    private long sampledNanos = 0;
+    private int samples = 0;
+    private int periodsSinceTrial = 0;
+    // index of the next candidate to try in the current trial, or -1 when there is no trial.
+    private int nextTrial = -1;
+
+    // constructor
+
+    /**
+     * Creates an empty engine, starting with brute force.
+     *
+     * @param worldWidth  width of the game world, for the tile map engine.
+     * @param worldHeight height of the game world, for the tile map engine.
+     */
+    public AutoCollisionEngine(double worldWidth, double worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.currentType = CollisionEngineType.BRUTE_FORCE;
+        this.current = currentType.create(worldWidth, worldHeight);
+        Arrays.fill(costs, Double.NaN);
+    }
+
+    // Methods
+
+    /**
+     * @return type of the engine that is currently running.
+     */
+    public CollisionEngineType getCurrentType() {
+        return currentType;
+    }
+
+    /**
+     * Adds a collidable to the running engine.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment.
+     */
+    @Override
+    public void add(Collidable c, int order) {
+        orders.put(c, order);
+        current.add(c, order);
+    }
+
+    /**
+     * Removes a collidable from the running engine.
+     *
+     * @param c collidable to remove.
+     * @return true if the collidable was in the engine, false otherwise.
+     */
+    @Override
+    public boolean remove(Collidable c) {
+        if (orders.remove(c) == null) {
+            return false;
+        }
+        return current.remove(c);
+    }
+
+    /**
+     * Refreshes the running engine.
+     */
+    @Override
+    public void refresh() {
+        current.refresh();
+    }
+
+    /**
+     * @return number of collidables in the engine.
+     */
+    @Override
+    public int size() {
+        return orders.size();
+    }
+
+    /**
+     * Adds every collidable of the engine to out.
+     *
+     * @param out buffer to add the collidables to.
+     */
+    @Override
+    public void collectAll(CandidateBuffer out) {
+        current.collectAll(out);
+    }
+
+    /**
+     * Queries the running engine, timing some of the queries.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object, the bounds are inflated by its radius bucket.
+     * @param out    buffer to add the candidates to.
+     */
+    @Override
+    public void query(double minX, double minY, double maxX, double maxY, double radius, CandidateBuffer out) {
+        queries++;
+        if (queries % SAMPLE_EVERY == 0) {
+            long start = System.nanoTime();
+            current.query(minX, minY, maxX, maxY, radius, out);
+            sampledNanos += System.nanoTime() - start;
+            samples++;
+        } else {
+            current.query(minX, minY, maxX, maxY, radius, out);
+        }
+        if (queries == PERIOD) {
+            endPeriod();
+        }
+    }
+
+    // records the cost of the period that ended, and decides which engine runs the next one.
+    private void endPeriod() {
+        int index = indexOf(currentType);
+        costs[index] = (double) sampledNanos / samples;
+        costSizes[index] = size();
+        queries = 0;
+        sampledNanos = 0;
+        samples = 0;
+
+        if (size() < SMALL_LEVEL) {
+            nextTrial = -1;
+            switchTo(CollisionEngineType.BRUTE_FORCE);
+            return;
+        }
+        if (nextTrial < 0) {
+            periodsSinceTrial++;
+            if (periodsSinceTrial < PERIODS_BETWEEN_TRIALS && !anyStale()) {
+                return;
+            }
+            periodsSinceTrial = 0;
+            nextTrial = 0;
+        }
+        if (nextTrial < CANDIDATES.length) {
+            switchTo(CANDIDATES[nextTrial++]);
+            return;
+        }
+        nextTrial = -1;
+        switchTo(cheapest());
+    }
+
+    // checks if the cost of a candidate was measured at a very different number of collidables.
+    private boolean isStale(int index) {
+        return Double.isNaN(costs[index]) || size() > 2 * costSizes[index] || 2 * size() < costSizes[index];
+    }
+
+    private boolean anyStale() {
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            if (isStale(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CollisionEngineType cheapest() {
+        int best = indexOf(currentType);
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            if (!isStale(i) && (isStale(best) || costs[i] < SWITCH_MARGIN * costs[best])) {
+                best = i;
+            }
+        }
+        return CANDIDATES[best];
+    }
+
+    // replaces the running engine by a new engine of the given type, holding the same collidables.
+    private void switchTo(CollisionEngineType type) {
+        if (type == currentType) {
+            return;
+        }
+        CollisionEngine engine = type.create(worldWidth, worldHeight);
+        for (Map.Entry<Collidable, Integer> entry : orders.entrySet()) {
+            engine.add(entry.getKey(), entry.getValue());
+        }
+        current = engine;
+        currentType = type;
+    }
+
+    private static int indexOf(CollisionEngineType type) {
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            if (CANDIDATES[i] == type) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
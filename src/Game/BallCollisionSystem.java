@@ -0,0 +1,159 @@
+package Game;
+
+import Geometry.Ball;
+import Geometry.Velocity;
+
+import java.util.Arrays;
+
+/**
+ * Elastic ball-to-ball collisions, with a sweep and prune broadphase.
+ * the balls are kept sorted by the left x of their bounds. balls barely move between frames, so the order of
+ * the previous frame is almost sorted and an insertion sort fixes it in about linear time. a sweep over the
+ * sorted balls then pairs every ball only with the balls that start before it ends, and only pairs whose
+ * bounds also overlap in y are tested exactly, so a step costs about O(n + pairs) instead of O(n^2).
+ */
+public class BallCollisionSystem {
+    // fields
+    private Ball[] balls = new Ball[16];
+    private double[] minX = new double[16];
+    private int size = 0;
+    private int lastCandidates = 0;
+    private int lastContacts = 0;
+
+    // Methods
+
+    /**
+     * Adds a ball to the system.
+     *
+     * @param b ball to add.
+     */
+    public void add(Ball b) {
+        if (size == balls.length) {
+            balls = Arrays.copyOf(balls, 2 * size);
+            minX = Arrays.copyOf(minX, 2 * size);
+        }
+        // the next resolve sorts it into place.
+        balls[size] = b;
+        minX[size] = b.getCenterX() - b.getSize();
+        size++;
+    }
+
+    /**
+     * Removes a ball from the system.
+     *
+     * @param b ball to remove.
+     * @return true if the ball was in the system, false otherwise.
+     */
+    public boolean remove(Ball b) {
+        for (int i = 0; i < size; i++) {
+            if (balls[i] == b) {
+                // shift the rest down, keeping them sorted.
+                System.arraycopy(balls, i + 1, balls, i, size - i - 1);
+                System.arraycopy(minX, i + 1, minX, i, size - i - 1);
+                size--;
+                balls[size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of balls in the system.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of pairs tested exactly by the last resolve.
+     */
+    public int getLastCandidates() {
+        return lastCandidates;
+    }
+
+    /**
+     * @return number of colliding pairs the last resolve bounced.
+     */
+    public int getLastContacts() {
+        return lastContacts;
+    }
+
+    /**
+     * Finds the balls that touch each other at their current positions, and bounces every touching pair that
+     * is moving closer together. pairs that already move apart are left alone, so overlapping balls separate
+     * instead of sticking.
+     */
+    public void resolve() {
+        sortByMinX();
+        lastCandidates = 0;
+        lastContacts = 0;
+        for (int i = 0; i < size; i++) {
+            Ball first = balls[i];
+            double maxX = minX[i] + 2 * first.getSize();
+            for (int j = i + 1; j < size && minX[j] <= maxX; j++) {
+                Ball second = balls[j];
+                double reach = first.getSize() + second.getSize();
+                if (Math.abs(second.getCenterY() - first.getCenterY()) > reach) {
+                    continue;
+                }
+                lastCandidates++;
+                if (bounce(first, second)) {
+                    lastContacts++;
+                }
+            }
+        }
+    }
+
+    // refreshes the keys and insertion sorts the balls by them, almost linear for the order of the last frame.
+    private void sortByMinX() {
+        for (int i = 0; i < size; i++) {
+            minX[i] = balls[i].getCenterX() - balls[i].getSize();
+        }
+        for (int i = 1; i < size; i++) {
+            Ball ball = balls[i];
+            double key = minX[i];
+            int j = i - 1;
+            while (j >= 0 && minX[j] > key) {
+                balls[j + 1] = balls[j];
+                minX[j + 1] = minX[j];
+                j--;
+            }
+            balls[j + 1] = ball;
+            minX[j + 1] = key;
+        }
+    }
+
+    // exact circle test and elastic response, with masses proportional to the area of the balls.
+    private static boolean bounce(Ball first, Ball second) {
+        double nx = second.getCenterX() - first.getCenterX();
+        double ny = second.getCenterY() - first.getCenterY();
+        double reach = first.getSize() + second.getSize();
+        double distanceSquared = nx * nx + ny * ny;
+        if (distanceSquared > reach * reach || distanceSquared == 0) {
+            return false;
+        }
+        double distance = Math.sqrt(distanceSquared);
+        nx /= distance;
+        ny /= distance;
+
+        Velocity v1 = first.getVelocity();
+        Velocity v2 = second.getVelocity();
+        double approach = (v2.getDx() - v1.getDx()) * nx + (v2.getDy() - v1.getDy()) * ny;
+        if (approach >= 0) {
+            return false;
+        }
+
+        double mass1 = (double) first.getSize() * first.getSize();
+        double mass2 = (double) second.getSize() * second.getSize();
+        if (mass1 + mass2 == 0) {
+            mass1 = 1;
+            mass2 = 1;
+        }
+        double share1 = 2 * mass2 / (mass1 + mass2) * approach;
+        double share2 = 2 * mass1 / (mass1 + mass2) * approach;
+        first.setVelocity(v1.getDx() + share1 * nx, v1.getDy() + share1 * ny);
+        second.setVelocity(v2.getDx() - share2 * nx, v2.getDy() - share2 * ny);
+        return true;
+    }
+}
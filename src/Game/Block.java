@@ -1,8 +1,8 @@
 package Game;
 
 import Geometry.Ball;
-import Geometry.Line;
 import Geometry.Point;
+import Geometry.ReadOnlyRectangle;
 import Geometry.Rectangle;
 import Geometry.Velocity;
 import Utils.Utility;
@@ -19,10 +19,9 @@ import java.util.List;
 public class Block implements Collidable, Sprite, HitNotifier {
     //fields
     private final Rectangle delegator;
+    // null until the first listener is added, most blocks never get one of their own.
     private List<HitListener> hitListeners;
-    private Boolean drawOutline = true;
-    private Boolean drawShades = true;
-    private Boolean drawDecorations = true;
+    private BlockStyle style;
 
 
     // Constructors
@@ -37,7 +36,18 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public Block(Point upperLeft, double width, double height, Color color) {
         delegator = new Rectangle(upperLeft, width, height, color);
-        hitListeners = new ArrayList<>();
+        hitListeners = null;
+        style = BlockFactory.style(color, BlockStyle.ALL);
+    }
+
+    /**
+     * Creates a block without bounds or style of its own, for views (flyweights) over blocks stored elsewhere
+     * (see Game.StoredBlock). a view must override every getter and setter of the block's bounds and style.
+     */
+    protected Block() {
+        delegator = null;
+        hitListeners = null;
+        style = null;
     }
 
     /**
@@ -94,6 +104,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void setColor(Color color) {
         this.delegator.setColor(color);
+        setStyle(BlockFactory.style(color, getStyle().getFlags()));
     }
 
     /**
@@ -136,7 +147,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
     /**
      * get the upper left point of the block.
      *
-     * @return the upper-left point.
+     * @return a copy of the upper-left point.
      */
     public Point getUpperLeft() {
         return this.delegator.getUpperLeft();
@@ -151,13 +162,31 @@ public class Block implements Collidable, Sprite, HitNotifier {
         return delegator.getColor();
     }
 
+    /**
+     * Gets the shared drawing style of the block.
+     *
+     * @return the style of the block.
+     */
+    public BlockStyle getStyle() {
+        return style;
+    }
+
+    /**
+     * Sets the drawing style of the block, should be a shared style from Game.BlockFactory.style.
+     *
+     * @param style the style to set.
+     */
+    public void setStyle(BlockStyle style) {
+        this.style = style;
+    }
+
     /**
      * Gets the state of DrawOutLine
      *
      * @return true if draws outline, false otherwise.
      */
     public Boolean getDrawOutline() {
-        return drawOutline;
+        return getStyle().has(BlockStyle.OUTLINE);
     }
 
     /**
@@ -166,7 +195,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param drawOutline true or false, according to wanted state.
      */
     public void setDrawOutline(Boolean drawOutline) {
-        this.drawOutline = drawOutline;
+        setStyleFlag(BlockStyle.OUTLINE, drawOutline);
     }
 
     /**
@@ -175,7 +204,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @return true if draws shades, false otherwise.
      */
     public Boolean getDrawShades() {
-        return drawShades;
+        return getStyle().has(BlockStyle.SHADES);
     }
 
     /**
@@ -184,7 +213,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param drawShades true or false, according to wanted state.
      */
     public void setDrawShades(Boolean drawShades) {
-        this.drawShades = drawShades;
+        setStyleFlag(BlockStyle.SHADES, drawShades);
     }
 
     /**
@@ -193,7 +222,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @return true if draws decorations, false otherwise.
      */
     public Boolean getDrawDecorations() {
-        return drawDecorations;
+        return getStyle().has(BlockStyle.DECORATIONS);
     }
 
     /**
@@ -202,7 +231,14 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param drawDecorations true or false, according to wanted state.
      */
     public void setDrawDecorations(Boolean drawDecorations) {
-        this.drawDecorations = drawDecorations;
+        setStyleFlag(BlockStyle.DECORATIONS, drawDecorations);
+    }
+
+    // switches to the shared style with one flag set or cleared.
+    private void setStyleFlag(int flag, Boolean value) {
+        BlockStyle current = getStyle();
+        int flags = value ? current.getFlags() | flag : current.getFlags() & ~flag;
+        setStyle(BlockFactory.style(current.getFill(), flags));
     }
 
     // Methods
@@ -215,6 +251,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
+        if (hitListeners == null) {
+            hitListeners = new ArrayList<>();
+        }
         hitListeners.add(hl);
     }
 
@@ -225,10 +264,20 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        hitListeners.remove(hl);
+        if (hitListeners != null) {
+            hitListeners.remove(hl);
+        }
     }
 
-    private void notifyHit(Ball hitter) {
+    /**
+     * Notifies the hit listeners of the block that it was hit.
+     *
+     * @param hitter the ball that hit the block.
+     */
+    protected void notifyHit(Ball hitter) {
+        if (hitListeners == null) {
+            return;
+        }
         List<HitListener> listeners = new ArrayList<HitListener>(this.hitListeners);
         for (HitListener hl : listeners) {
             hl.hitEvent(this, hitter);
@@ -237,10 +286,45 @@ public class Block implements Collidable, Sprite, HitNotifier {
 
 
     /**
-     * @return Geometry.Rectangle that is representing the block
+     * @return read-only view of the Geometry.Rectangle that is representing the block
      */
-    public Rectangle getCollisionRectangle() {
-        return delegator.copy();
+    public ReadOnlyRectangle getCollisionRectangle() {
+        return delegator.readOnlyView();
+    }
+
+    /**
+     * @return left x of the block.
+     */
+    public double getMinX() {
+        return delegator.getMinX();
+    }
+
+    /**
+     * @return top y of the block.
+     */
+    public double getMinY() {
+        return delegator.getMinY();
+    }
+
+    /**
+     * @return right x of the block.
+     */
+    public double getMaxX() {
+        return delegator.getMaxX();
+    }
+
+    /**
+     * @return bottom y of the block.
+     */
+    public double getMaxY() {
+        return delegator.getMaxY();
+    }
+
+    /**
+     * @return counter that changes whenever the block is moved or resized.
+     */
+    public int getBoundsVersion() {
+        return delegator.getBoundsVersion();
     }
 
     /**
@@ -256,22 +340,52 @@ public class Block implements Collidable, Sprite, HitNotifier {
             return null;
         }
         //check if point is within the block.
-        if (!delegator.contains(collisionPoint)) {
+        if (!Utility.doubleLE(getMinX(), collisionPoint.getX()) || !Utility.doubleLE(collisionPoint.getX(), getMaxX())
+                || !Utility.doubleLE(getMinY(), collisionPoint.getY())
+                || !Utility.doubleLE(collisionPoint.getY(), getMaxY())) {
             return currentVelocity;
         }
+        return bounce(hitter, CollisionInfo.sidesAt(collisionPoint.getX(), collisionPoint.getY(), this), 0, 0,
+                currentVelocity);
+    }
 
-        Velocity returnVelocity = currentVelocity.copy();
-        //get sides of the rectangle top, right, bottom, left
-        Line[] sides = delegator.getSides();
-
-        // Check if hitting top or bottom sides of the block
-        if (sides[0].isPointOnSegment(collisionPoint) || sides[2].isPointOnSegment(collisionPoint)) {
-            returnVelocity.setDy(-returnVelocity.getDy());
+    /**
+     * return expected velocity after a hit found by the intersection kernel, reflected about the normal of the
+     * hit (so a ball hitting a rounded corner turns by the exact angle of the corner).
+     *
+     * @param hitter          the ball that is hitting the block
+     * @param collision       the collision, with the hit sides and normal.
+     * @param currentVelocity velocity before hit.
+     * @return new velocity after hit.
+     */
+    @Override
+    public Velocity hit(Ball hitter, CollisionInfo collision, Velocity currentVelocity) {
+        if (currentVelocity == null) {
+            return null;
         }
+        return bounce(hitter, collision.getSides(), collision.getNormalX(), collision.getNormalY(), currentVelocity);
+    }
 
-        // Check if hitting right or left sides of the block.
-        if (sides[1].isPointOnSegment(collisionPoint) || sides[3].isPointOnSegment(collisionPoint)) {
-            returnVelocity.setDx(-returnVelocity.getDx());
+    // reflects the velocity about the normal of the hit, or off the hit sides when there is no normal (0, 0),
+    // and notifies the listeners.
+    private Velocity bounce(Ball hitter, int sides, double normalX, double normalY, Velocity currentVelocity) {
+        Velocity returnVelocity = currentVelocity.copy();
+
+        if (normalX != 0 || normalY != 0) {
+            // only a ball moving into the block is turned back.
+            if (currentVelocity.getDx() * normalX + currentVelocity.getDy() * normalY < 0) {
+                returnVelocity = returnVelocity.reflect(normalX, normalY);
+            }
+        } else {
+            // Check if hitting top or bottom sides of the block
+            if ((sides & (CollisionInfo.TOP | CollisionInfo.BOTTOM)) != 0) {
+                returnVelocity = returnVelocity.reflect(0, 1);
+            }
+
+            // Check if hitting right or left sides of the block.
+            if ((sides & (CollisionInfo.LEFT | CollisionInfo.RIGHT)) != 0) {
+                returnVelocity = returnVelocity.reflect(1, 0);
+            }
         }
 
         this.notifyHit(hitter);
@@ -286,7 +400,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @return true if same color, false otherwise.
      */
     public boolean ballColorMatch(Ball ball) {
-        return this.delegator.getColor().equals(ball.getColor());
+        return this.getColor().equals(ball.getColor());
     }
 
     /**
@@ -314,20 +428,63 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param drawSurface drawSurface to draw on.
      */
     public void drawOn(DrawSurface drawSurface) {
-        Point cord = this.delegator.getUpperLeft();
-        int height = (int) this.delegator.getHeight();
-        int width = (int) this.delegator.getWidth();
-        int x = (int) cord.getX();
-        int y = (int) cord.getY() + 1;
+        drawBlock(drawSurface, getMinX(), getMinY(), getWidth(), getHeight(), getStyle());
+    }
+
+    /**
+     * Draw block on given drawSurface, with the parts of its style the quality allows.
+     *
+     * @param drawSurface drawSurface to draw on.
+     * @param quality     level of detail to draw at.
+     */
+    @Override
+    public void drawOn(DrawSurface drawSurface, RenderQuality quality) {
+        drawBlock(drawSurface, getMinX(), getMinY(), getWidth(), getHeight(), getStyle(), quality);
+    }
+
+    /**
+     * Draws a block from its plain state, shared by blocks and by stores of blocks (see Game.BlockStore).
+     *
+     * @param drawSurface drawSurface to draw on.
+     * @param left        left x of the block.
+     * @param top         top y of the block.
+     * @param blockWidth  width of the block.
+     * @param blockHeight height of the block.
+     * @param style       shared style of the block.
+     */
+    static void drawBlock(DrawSurface drawSurface, double left, double top, double blockWidth, double blockHeight,
+                          BlockStyle style) {
+        drawBlock(drawSurface, left, top, blockWidth, blockHeight, style, RenderQuality.FULL);
+    }
+
+    /**
+     * Draws a block from its plain state, with the parts of its style the quality allows.
+     *
+     * @param drawSurface drawSurface to draw on.
+     * @param left        left x of the block.
+     * @param top         top y of the block.
+     * @param blockWidth  width of the block.
+     * @param blockHeight height of the block.
+     * @param style       shared style of the block.
+     * @param quality     level of detail to draw at.
+     */
+    static void drawBlock(DrawSurface drawSurface, double left, double top, double blockWidth, double blockHeight,
+                          BlockStyle style, RenderQuality quality) {
+        int flags = quality.filter(style.getFlags());
+        int height = (int) blockHeight;
+        int width = (int) blockWidth;
+        int x = (int) left;
+        int y = (int) top + 1;
 
         //fill color
-        delegator.drawOn(drawSurface);
+        drawSurface.setColor(style.getFill());
+        drawSurface.fillRectangle(x, (int) top, width, height);
 
 
         //shades
-        if (drawShades) {
+        if ((flags & BlockStyle.SHADES) != 0) {
             //Bright
-            drawSurface.setColor(Utility.getBrighterColor(this.getColor()));
+            drawSurface.setColor(style.getBrightShade());
 
             //top
             drawSurface.fillRectangle(x, y, width, (int) (height * 0.2));
@@ -336,7 +493,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
             drawSurface.fillRectangle(x, y, (int) (width*0.1), height);
 
             //Dark
-            drawSurface.setColor(Utility.getDarkerColor(this.getColor()));
+            drawSurface.setColor(style.getDarkShade());
 
             //bot
             drawSurface.fillRectangle(x, (int) (y + (height * 0.8)), (width), (int) (height * 0.2));
@@ -348,10 +505,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
         //Decoration
 
         //outline
-        if (this.drawOutline) {
-            drawSurface.setColor(Color.BLACK);
-            drawSurface.drawRectangle((int) this.getUpperLeft().getX(), (int) this.getUpperLeft().getY(),
-                    (int) this.getWidth(), (int) this.getHeight());
+        if ((flags & BlockStyle.OUTLINE) != 0) {
+            drawSurface.setColor(style.getOutline());
+            drawSurface.drawRectangle(x, (int) top, width, height);
         }
     }
 
@@ -363,4 +519,24 @@ public class Block implements Collidable, Sprite, HitNotifier {
         return;
     }
 
+    /**
+     * Blocks don't change with time, so they are not notified that time passed.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean isActive() {
+        return false;
+    }
+
+    /**
+     * Blocks are drawn in the static blocks layer, unless they are added to another one.
+     *
+     * @return SpriteLayer.STATIC_BLOCKS.
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.STATIC_BLOCKS;
+    }
+
 }
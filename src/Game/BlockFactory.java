@@ -1,38 +1,57 @@
 package Game;
 
 import java.awt.Color;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BlockFactory {
+    // shared styles, by color and flags. concurrent, so blocks can be created on any thread.
+    private static final Map<Long, BlockStyle> STYLES = new ConcurrentHashMap<>();
+
+    private static final int GAME = BlockStyle.ALL;
+    private static final int BORDER = BlockStyle.OUTLINE;
+    private static final int BACKGROUND = 0;
+    private static final int PADDLE = BlockStyle.OUTLINE;
+
+    /**
+     * Returns the shared style of the given color and flags, created the first time it is asked for.
+     * safe to call from any thread, every thread gets the same style.
+     *
+     * @param color fill color.
+     * @param flags combination of BlockStyle.OUTLINE, BlockStyle.SHADES and BlockStyle.DECORATIONS.
+     * @return the shared style.
+     */
+    public static BlockStyle style(Color color, int flags) {
+        int styleFlags = flags & BlockStyle.ALL;
+        long key = ((long) color.getRGB() << 32) | styleFlags;
+        BlockStyle style = STYLES.get(key);
+        if (style == null) {
+            style = STYLES.computeIfAbsent(key, k -> new BlockStyle(color, styleFlags));
+        }
+        return style;
+    }
 
     public static Block gameBlock(double x, double y, double width, double height, Color color) {
         Block newBlock = new Block(x, y, width, height, color);
-        newBlock.setDrawDecorations(true);
-        newBlock.setDrawOutline(true);
-        newBlock.setDrawShades(true);
+        newBlock.setStyle(style(color, GAME));
         return newBlock;
     }
 
     public static Block borderBlock(double x, double y, double width, double height, Color color) {
         Block newBlock = new Block(x, y, width, height, color);
-        newBlock.setDrawDecorations(false);
-        newBlock.setDrawOutline(true);
-        newBlock.setDrawShades(false);
+        newBlock.setStyle(style(color, BORDER));
         return newBlock;
     }
 
     public static Block backgroundBlock(double x, double y, double width, double height, Color color) {
         Block newBlock = new Block(x, y, width, height, color);
-        newBlock.setDrawDecorations(false);
-        newBlock.setDrawOutline(false);
-        newBlock.setDrawShades(false);
+        newBlock.setStyle(style(color, BACKGROUND));
         return newBlock;
     }
 
     public static Block paddleBlock(double x, double y, double width, double height, Color color) {
         Block newBlock = new Block(x, y, width, height, color);
-        newBlock.setDrawDecorations(false);
-        newBlock.setDrawOutline(true);
-        newBlock.setDrawShades(false);
+        newBlock.setStyle(style(color, PADDLE));
         return newBlock;
 
     }
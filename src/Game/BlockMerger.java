@@ -0,0 +1,84 @@
+package Game;
+
+import Utils.Utility;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+
+/**
+ * Draws the fills of blocks, merging a block with the one before it into one rectangle when they have the same
+ * color and continue each other (the next block of a row, or of a column), used at RenderQuality.MERGED.
+ * the blocks are given in drawing order. blocks continue each other when their edges meet (up to
+ * Utils.Utility.doubleEquals), not their rounded pixels, so blocks of fractional sizes merge too. a merged
+ * rectangle is filled from its rounded down left and top to its rounded down right and bottom, which also
+ * fills the 1 pixel seams that truncating every block's size leaves between neighbours, so the pixels differ
+ * slightly from drawing the blocks one by one.
+ */
+public class BlockMerger {
+    // fields
+    private Color color = null;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private int fills = 0;
+
+    // Methods
+
+    /**
+     * Adds the fill of a block, drawing the pending rectangle first if the block doesn't continue it.
+     *
+     * @param d           drawSurface to draw on.
+     * @param left        left x of the block.
+     * @param top         top y of the block.
+     * @param blockWidth  width of the block.
+     * @param blockHeight height of the block.
+     * @param fill        fill color of the block.
+     */
+    public void add(DrawSurface d, double left, double top, double blockWidth, double blockHeight, Color fill) {
+        double right = left + blockWidth;
+        double bottom = top + blockHeight;
+        if (fill.equals(color)) {
+            if (Utility.doubleEquals(top, minY) && Utility.doubleEquals(bottom, maxY)
+                    && Utility.doubleEquals(left, maxX)) {
+                maxX = right;
+                return;
+            }
+            if (Utility.doubleEquals(left, minX) && Utility.doubleEquals(right, maxX)
+                    && Utility.doubleEquals(top, maxY)) {
+                maxY = bottom;
+                return;
+            }
+        }
+        flush(d);
+        color = fill;
+        minX = left;
+        minY = top;
+        maxX = right;
+        maxY = bottom;
+    }
+
+    /**
+     * Draws the pending rectangle, call it before drawing anything that isn't merged and at the end.
+     *
+     * @param d drawSurface to draw on.
+     */
+    public void flush(DrawSurface d) {
+        if (color == null) {
+            return;
+        }
+        int x = (int) minX;
+        int y = (int) minY;
+        d.setColor(color);
+        d.fillRectangle(x, y, (int) maxX - x, (int) maxY - y);
+        color = null;
+        fills++;
+    }
+
+    /**
+     * @return number of rectangles drawn since the merger was created.
+     */
+    public int getFillCount() {
+        return fills;
+    }
+}
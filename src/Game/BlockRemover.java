@@ -35,9 +35,8 @@ public class BlockRemover implements HitListener {
             beingHit.removeFromGame(game);
             remainingBlocks.decrease(1);
             hitter.setColor(beingHit.getColor());
-            Velocity v = Velocity.fromAngleAndSpeed(hitter.getVelocity().getAngle(),
-                    hitter.getVelocity().getSpeed() + 0.2);
-            hitter.setVelocity(v);
+            Velocity v = hitter.getVelocity();
+            hitter.setVelocity(v.scaleTo(v.getSpeed() + 0.2));
         }
     }
 }
@@ -0,0 +1,602 @@
+package Game;
+
+import Geometry.Ball;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap storage for huge numbers of blocks (procedural arenas with up to millions of blocks).
+ * every block is a fixed size record in a direct buffer, outside the java heap: its top-left point and size,
+ * the index of its Game.BlockStyle in a palette of shared styles, an alive bit, a version that changes when
+ * it moves, and a stamp used by queries. a block costs RECORD_BYTES bytes instead of the objects of a
+ * Game.Block (block, rectangle, point, listener list, boxed flags).
+ * the store is drawn as one sprite by a sequential scan of the records (or, through a camera, by the cells of
+ * its grid the viewport covers), indexes its blocks in its own grid
+ * for collision queries, and hands out Game.StoredBlock views of its blocks to the rest of the game.
+ * views are not kept per block, only the last ones handed out are reused, so they don't add to the heap as
+ * more blocks are hit or queried. hit listeners belong to the store, either for all of its blocks or for one.
+ */
+public class BlockStore implements CullableSprite, CollisionSource {
+    // constants
+
+    /**
+     * Size in bytes of the record of one block.
+     */
+    public static final int RECORD_BYTES = 48;
+
+    // record layout.
+    private static final int MIN_X = 0;
+    private static final int MIN_Y = 8;
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 24;
+    private static final int PALETTE = 32;
+    private static final int VERSION = 36;
+    private static final int STATE = 40;
+    private static final int STAMP = 44;
+    private static final int ALIVE = 1;
+
+    private static final double DEFAULT_CELL_SIZE = 64;
+    // number of views reused, a power of two: a view is reused for its id until another id maps to its slot.
+    private static final int VIEW_CACHE_SIZE = 1024;
+
+    // fields
+    private ByteBuffer records;
+    private int size = 0;
+    private int aliveCount = 0;
+    private final List<BlockStyle> palette = new ArrayList<>();
+    private final Map<BlockStyle, Integer> paletteIndexes = new HashMap<>();
+    private final List<HitListener> hitListeners = new ArrayList<>();
+    private final Map<Integer, List<HitListener>> blockListeners = new HashMap<>();
+    private final StoredBlock[] views = new StoredBlock[VIEW_CACHE_SIZE];
+    private final double cellSize;
+    private final CellTable cells = new CellTable();
+    private int stamp = 0;
+    private int[] visibleIds = new int[64];
+    private final BlockMerger merger = new BlockMerger();
+    private int modificationCount = 0;
+
+    // constructors
+
+    /**
+     * Creates an empty store.
+     *
+     * @param initialCapacity number of blocks the store has room for before it grows.
+     * @param cellSize        size of the cells of the store's collision grid.
+     */
+    public BlockStore(int initialCapacity, double cellSize) {
+        this.records = allocate(Math.max(1, initialCapacity));
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Creates an empty store with a default grid.
+     *
+     * @param initialCapacity number of blocks the store has room for before it grows.
+     */
+    public BlockStore(int initialCapacity) {
+        this(initialCapacity, DEFAULT_CELL_SIZE);
+    }
+
+    // Methods
+
+    /**
+     * Adds a block to the store.
+     *
+     * @param x      top-left point X coordinate.
+     * @param y      top-left point Y coordinate.
+     * @param width  block width.
+     * @param height block height.
+     * @param color  block color.
+     * @param flags  combination of BlockStyle.OUTLINE, BlockStyle.SHADES and BlockStyle.DECORATIONS.
+     * @return the id of the new block.
+     */
+    public int add(double x, double y, double width, double height, Color color, int flags) {
+        return add(x, y, width, height, BlockFactory.style(color, flags));
+    }
+
+    /**
+     * Adds a block to the store.
+     *
+     * @param x      top-left point X coordinate.
+     * @param y      top-left point Y coordinate.
+     * @param width  block width.
+     * @param height block height.
+     * @param style  shared style of the block.
+     * @return the id of the new block.
+     */
+    public int add(double x, double y, double width, double height, BlockStyle style) {
+        if ((size + 1) * RECORD_BYTES > records.capacity()) {
+            ByteBuffer grown = allocate(2 * size);
+            grown.put(records.duplicate().clear().limit(size * RECORD_BYTES));
+            records = grown;
+        }
+        int id = size++;
+        int base = id * RECORD_BYTES;
+        records.putDouble(base + MIN_X, x);
+        records.putDouble(base + MIN_Y, y);
+        records.putDouble(base + WIDTH, width);
+        records.putDouble(base + HEIGHT, height);
+        records.putInt(base + PALETTE, paletteIndexOf(style));
+        records.putInt(base + VERSION, 0);
+        records.putInt(base + STATE, ALIVE);
+        records.putInt(base + STAMP, 0);
+        aliveCount++;
+        modificationCount++;
+        insert(id);
+        return id;
+    }
+
+    /**
+     * Removes a block from the store: it stops being drawn and hit, its record stays as a dead record.
+     *
+     * @param id id of the block.
+     * @return true if the block was alive, false otherwise.
+     */
+    public boolean remove(int id) {
+        if (!isAlive(id)) {
+            return false;
+        }
+        erase(id);
+        int base = id * RECORD_BYTES;
+        records.putInt(base + STATE, records.getInt(base + STATE) & ~ALIVE);
+        aliveCount--;
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * Brings a removed block back to the store: it is drawn and hit again.
+     *
+     * @param id id of the block.
+     * @return true if the block was removed, false if it is alive or not in the store.
+     */
+    public boolean restore(int id) {
+        if (id < 0 || id >= size || isAlive(id)) {
+            return false;
+        }
+        int base = id * RECORD_BYTES;
+        records.putInt(base + STATE, records.getInt(base + STATE) | ALIVE);
+        insert(id);
+        aliveCount++;
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * @param id id of a block.
+     * @return true if the block is in the store and was not removed.
+     */
+    public boolean isAlive(int id) {
+        return id >= 0 && id < size && (records.getInt(id * RECORD_BYTES + STATE) & ALIVE) != 0;
+    }
+
+    /**
+     * @return number of records in the store, including removed blocks. ids are below it.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of blocks in the store that were not removed.
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * Returns the number of times blocks were added to or removed from the store.
+     *
+     * @return the modification count of the store.
+     */
+    @Override
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @param id id of a block.
+     * @return left x of the block.
+     */
+    public double getMinX(int id) {
+        return records.getDouble(id * RECORD_BYTES + MIN_X);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return top y of the block.
+     */
+    public double getMinY(int id) {
+        return records.getDouble(id * RECORD_BYTES + MIN_Y);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return right x of the block.
+     */
+    public double getMaxX(int id) {
+        return getMinX(id) + getWidth(id);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return bottom y of the block.
+     */
+    public double getMaxY(int id) {
+        return getMinY(id) + getHeight(id);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return width of the block.
+     */
+    public double getWidth(int id) {
+        return records.getDouble(id * RECORD_BYTES + WIDTH);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return height of the block.
+     */
+    public double getHeight(int id) {
+        return records.getDouble(id * RECORD_BYTES + HEIGHT);
+    }
+
+    /**
+     * @param id id of a block.
+     * @return counter that changes whenever the block moves.
+     */
+    public int getVersion(int id) {
+        return records.getInt(id * RECORD_BYTES + VERSION);
+    }
+
+    /**
+     * Moves a block, keeping its size.
+     *
+     * @param id id of the block.
+     * @param x  new top-left point X coordinate.
+     * @param y  new top-left point Y coordinate.
+     */
+    public void setPosition(int id, double x, double y) {
+        boolean alive = isAlive(id);
+        if (alive) {
+            erase(id);
+        }
+        int base = id * RECORD_BYTES;
+        records.putDouble(base + MIN_X, x);
+        records.putDouble(base + MIN_Y, y);
+        records.putInt(base + VERSION, records.getInt(base + VERSION) + 1);
+        if (alive) {
+            insert(id);
+        }
+    }
+
+    /**
+     * @param id id of a block.
+     * @return shared style of the block.
+     */
+    public BlockStyle getStyle(int id) {
+        return palette.get(records.getInt(id * RECORD_BYTES + PALETTE));
+    }
+
+    /**
+     * Sets the style of a block.
+     *
+     * @param id    id of the block.
+     * @param style shared style to set.
+     */
+    public void setStyle(int id, BlockStyle style) {
+        records.putInt(id * RECORD_BYTES + PALETTE, paletteIndexOf(style));
+    }
+
+    /**
+     * @param id id of a block.
+     * @return color of the block.
+     */
+    public Color getColor(int id) {
+        return getStyle(id).getFill();
+    }
+
+    /**
+     * Sets the color of a block, keeping the rest of its style.
+     *
+     * @param id    id of the block.
+     * @param color the new color.
+     */
+    public void setColor(int id, Color color) {
+        setStyle(id, BlockFactory.style(color, getStyle(id).getFlags()));
+    }
+
+    /**
+     * Returns a view of a block. the view is a Game.Block, so it can be collided with and handed to hit
+     * listeners. the last views handed out are reused, so a view may or may not be the object an earlier call
+     * returned for the same block, but views of the same block are equal.
+     *
+     * @param id id of the block.
+     * @return a view of the block.
+     */
+    public StoredBlock view(int id) {
+        int slot = id & (VIEW_CACHE_SIZE - 1);
+        StoredBlock view = views[slot];
+        if (view == null || view.getId() != id) {
+            view = new StoredBlock(this, id);
+            views[slot] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Add hl to the listeners of hits on every block of the store.
+     *
+     * @param hl hit listener to add
+     */
+    public void addHitListener(HitListener hl) {
+        hitListeners.add(hl);
+    }
+
+    /**
+     * Remove hl from the listeners of the store.
+     *
+     * @param hl hit listener to remove
+     */
+    public void removeHitListener(HitListener hl) {
+        hitListeners.remove(hl);
+    }
+
+    /**
+     * Add hl to the listeners of hits on one block of the store.
+     *
+     * @param id id of the block.
+     * @param hl hit listener to add
+     */
+    void addHitListener(int id, HitListener hl) {
+        blockListeners.computeIfAbsent(id, k -> new ArrayList<>()).add(hl);
+    }
+
+    /**
+     * Remove hl from the listeners of one block of the store.
+     *
+     * @param id id of the block.
+     * @param hl hit listener to remove
+     */
+    void removeHitListener(int id, HitListener hl) {
+        List<HitListener> listeners = blockListeners.get(id);
+        if (listeners != null && listeners.remove(hl) && listeners.isEmpty()) {
+            blockListeners.remove(id);
+        }
+    }
+
+    /**
+     * Notifies the listeners of the store, then the listeners of the block, that one of its blocks was hit.
+     *
+     * @param beingHit view of the block that was hit.
+     * @param hitter   the ball that hit it.
+     */
+    void notifyHit(StoredBlock beingHit, Ball hitter) {
+        List<HitListener> listeners = new ArrayList<>(this.hitListeners);
+        if (!blockListeners.isEmpty()) {
+            List<HitListener> own = blockListeners.get(beingHit.getId());
+            if (own != null) {
+                listeners.addAll(own);
+            }
+        }
+        for (HitListener hl : listeners) {
+            hl.hitEvent(beingHit, hitter);
+        }
+    }
+
+    /**
+     * Adds to out the views of the alive blocks whose bounds, inflated by the radius bucket of the given radius,
+     * overlap the given box, looking only at the cells of the store's grid the box covers.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object.
+     * @param order  order the environment gave the store.
+     * @param out    buffer to add the candidates to.
+     */
+    @Override
+    public void query(double minX, double minY, double maxX, double maxY, double radius, int order,
+                      CandidateBuffer out) {
+        double grow = BoundsTable.radiusBucket(radius);
+        double reach = grow + SegmentCast.BOX_PADDING;
+        long fromX = cell(minX - reach);
+        long fromY = cell(minY - reach);
+        long toX = cell(maxX + reach);
+        long toY = cell(maxY + reach);
+        nextStamp();
+        for (long cellY = fromY; cellY <= toY; cellY++) {
+            for (long cellX = fromX; cellX <= toX; cellX++) {
+                IntList ids = cells.get(CellTable.key(cellX, cellY));
+                if (ids == null) {
+                    continue;
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    int id = ids.get(i);
+                    int base = id * RECORD_BYTES;
+                    if (records.getInt(base + STAMP) == stamp) {
+                        continue;
+                    }
+                    records.putInt(base + STAMP, stamp);
+                    double left = getMinX(id) - grow;
+                    double top = getMinY(id) - grow;
+                    double right = getMaxX(id) + grow;
+                    double bottom = getMaxY(id) + grow;
+                    if (left - SegmentCast.BOX_PADDING <= maxX && minX <= right + SegmentCast.BOX_PADDING
+                            && top - SegmentCast.BOX_PADDING <= maxY && minY <= bottom + SegmentCast.BOX_PADDING) {
+                        out.add(view(id), order, left, top, right, bottom);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws every alive block of the store, scanning the records in order.
+     *
+     * @param d drawSurface to draw on.
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        drawOn(d, RenderQuality.FULL);
+    }
+
+    /**
+     * Draws every alive block of the store at the given level of detail, scanning the records in order.
+     *
+     * @param d       drawSurface to draw on.
+     * @param quality level of detail to draw at.
+     */
+    @Override
+    public void drawOn(DrawSurface d, RenderQuality quality) {
+        for (int id = 0; id < size; id++) {
+            if ((records.getInt(id * RECORD_BYTES + STATE) & ALIVE) != 0) {
+                drawRecord(d, id, quality);
+            }
+        }
+        merger.flush(d);
+    }
+
+    /**
+     * Draws the alive blocks of the store that overlap the given box, looking only at the cells of the store's
+     * grid the box covers. the blocks are drawn in the order of their ids, as drawOn(DrawSurface) does.
+     *
+     * @param d       drawSurface to draw on.
+     * @param quality level of detail to draw at.
+     * @param minX    left x of the box.
+     * @param minY    top y of the box.
+     * @param maxX    right x of the box.
+     * @param maxY    bottom y of the box.
+     */
+    @Override
+    public void drawOn(DrawSurface d, RenderQuality quality, double minX, double minY, double maxX, double maxY) {
+        int count = 0;
+        nextStamp();
+        for (long cellY = cell(minY); cellY <= cell(maxY); cellY++) {
+            for (long cellX = cell(minX); cellX <= cell(maxX); cellX++) {
+                IntList ids = cells.get(CellTable.key(cellX, cellY));
+                if (ids == null) {
+                    continue;
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    int id = ids.get(i);
+                    int base = id * RECORD_BYTES;
+                    if (records.getInt(base + STAMP) == stamp) {
+                        continue;
+                    }
+                    records.putInt(base + STAMP, stamp);
+                    if (getMinX(id) <= maxX && minX <= getMaxX(id) && getMinY(id) <= maxY && minY <= getMaxY(id)) {
+                        if (count == visibleIds.length) {
+                            visibleIds = Arrays.copyOf(visibleIds, 2 * count);
+                        }
+                        visibleIds[count++] = id;
+                    }
+                }
+            }
+        }
+        Arrays.sort(visibleIds, 0, count);
+        for (int i = 0; i < count; i++) {
+            drawRecord(d, visibleIds[i], quality);
+        }
+        merger.flush(d);
+    }
+
+    /**
+     * Notify the store that time has passed, stored blocks don't move on their own.
+     */
+    @Override
+    public void timePassed() {
+    }
+
+    /**
+     * Stored blocks don't change with time, so the store is not notified that time passed.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean isActive() {
+        return false;
+    }
+
+    /**
+     * The blocks of the store are drawn in the static blocks layer.
+     *
+     * @return SpriteLayer.STATIC_BLOCKS.
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.STATIC_BLOCKS;
+    }
+
+    // draws one block, at MERGED through the merger (flush it after the last block).
+    private void drawRecord(DrawSurface d, int id, RenderQuality quality) {
+        int base = id * RECORD_BYTES;
+        BlockStyle style = palette.get(records.getInt(base + PALETTE));
+        if (quality == RenderQuality.MERGED) {
+            merger.add(d, records.getDouble(base + MIN_X), records.getDouble(base + MIN_Y),
+                    records.getDouble(base + WIDTH), records.getDouble(base + HEIGHT), style.getFill());
+        } else {
+            Block.drawBlock(d, records.getDouble(base + MIN_X), records.getDouble(base + MIN_Y),
+                    records.getDouble(base + WIDTH), records.getDouble(base + HEIGHT), style, quality);
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private int paletteIndexOf(BlockStyle style) {
+        Integer index = paletteIndexes.get(style);
+        if (index == null) {
+            index = palette.size();
+            palette.add(style);
+            paletteIndexes.put(style, index);
+        }
+        return index;
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            for (int id = 0; id < size; id++) {
+                records.putInt(id * RECORD_BYTES + STAMP, 0);
+            }
+            stamp = 1;
+        }
+    }
+
+    // lists the block in every cell its bounds overlap.
+    private void insert(int id) {
+        for (long cellY = cell(getMinY(id)); cellY <= cell(getMaxY(id)); cellY++) {
+            for (long cellX = cell(getMinX(id)); cellX <= cell(getMaxX(id)); cellX++) {
+                cells.getOrCreate(CellTable.key(cellX, cellY)).add(id);
+            }
+        }
+    }
+
+    // removes the block from the cells it was listed in.
+    private void erase(int id) {
+        for (long cellY = cell(getMinY(id)); cellY <= cell(getMaxY(id)); cellY++) {
+            for (long cellX = cell(getMinX(id)); cellX <= cell(getMaxX(id)); cellX++) {
+                IntList ids = cells.get(CellTable.key(cellX, cellY));
+                if (ids != null) {
+                    ids.removeValue(id);
+                }
+            }
+        }
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+}
@@ -0,0 +1,104 @@
+package Game;
+
+import Utils.Utility;
+
+import java.awt.Color;
+
+/**
+ * Immutable drawing style of blocks: the fill color, its bright and dark shades, the outline color and the
+ * flags of the parts that are drawn.
+ * styles are shared (flyweights): Game.BlockFactory.style interns one style per color and flags, and every
+ * block of that color and kind points at it, so the shades are computed once per style instead of once per
+ * block on every frame.
+ */
+public final class BlockStyle {
+    // constants
+
+    /**
+     * Flag of blocks that are drawn with an outline.
+     */
+    public static final int OUTLINE = 1;
+
+    /**
+     * Flag of blocks that are drawn with bright and dark shades.
+     */
+    public static final int SHADES = 2;
+
+    /**
+     * Flag of blocks that are drawn with decorations.
+     */
+    public static final int DECORATIONS = 4;
+
+    /**
+     * All the flags.
+     */
+    public static final int ALL = OUTLINE | SHADES | DECORATIONS;
+
+    // fields
+    private final Color fill;
+    private final Color brightShade;
+    private final Color darkShade;
+    private final Color outline;
+    private final int flags;
+
+    // constructor
+
+    /**
+     * Creates a style, use Game.BlockFactory.style to get a shared one.
+     *
+     * @param fill  fill color of the blocks.
+     * @param flags combination of OUTLINE, SHADES and DECORATIONS.
+     */
+    public BlockStyle(Color fill, int flags) {
+        this.fill = fill;
+        this.brightShade = Utility.getBrighterColor(fill);
+        this.darkShade = Utility.getDarkerColor(fill);
+        this.outline = Color.BLACK;
+        this.flags = flags & ALL;
+    }
+
+    // Methods
+
+    /**
+     * @return fill color of the blocks.
+     */
+    public Color getFill() {
+        return fill;
+    }
+
+    /**
+     * @return the bright shade of the fill color, drawn on the top and left of the blocks.
+     */
+    public Color getBrightShade() {
+        return brightShade;
+    }
+
+    /**
+     * @return the dark shade of the fill color, drawn on the bottom and right of the blocks.
+     */
+    public Color getDarkShade() {
+        return darkShade;
+    }
+
+    /**
+     * @return color of the outline of the blocks.
+     */
+    public Color getOutline() {
+        return outline;
+    }
+
+    /**
+     * @return combination of OUTLINE, SHADES and DECORATIONS.
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * @param flag one of OUTLINE, SHADES and DECORATIONS.
+     * @return true if the style has the flag, false otherwise.
+     */
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+}
@@ -0,0 +1,310 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Slot table shared by the collision engines.
+ * every collidable gets a slot, and the table keeps its order and the bounds (and bounds version) it had
+ * when it was last read, in flat arrays indexed by slot. freed slots are reused by the next additions.
+ * queries for round objects (balls) test the bounds inflated by the object's radius, rounded up to a whole
+ * radius bucket. the inflated bounds are cached per bucket, and computed again only after a slot is re-read.
+ */
+public class BoundsTable {
+    // fields
+    private final Map<Collidable, Integer> slots = new HashMap<>();
+    private Collidable[] collidables = new Collidable[16];
+    private int[] orders = new int[16];
+    private double[] minX = new double[16];
+    private double[] minY = new double[16];
+    private double[] maxX = new double[16];
+    private double[] maxY = new double[16];
+    private int[] stamps = new int[16];
+    private int[] versions = new int[16];
+    private int[] reads = new int[16];
+    private final IntList freeSlots = new IntList();
+    private final Map<Integer, InflatedBounds> inflatedByBucket = new HashMap<>();
+    private InflatedBounds inflated;
+    private int highestSlot = 0;
+    private int stamp = 0;
+    private int readCount = 0;
+
+    // constructor
+
+    /**
+     * Creates an empty table, with queries for points (radius 0) selected.
+     */
+    public BoundsTable() {
+        selectRadius(0);
+    }
+
+    // Methods
+
+    /**
+     * Returns the radius bucket of a radius: the radius rounded up to a whole number.
+     * bounds inflated by the bucket contain the bounds inflated by the radius itself.
+     *
+     * @param radius a radius.
+     * @return the radius bucket.
+     */
+    public static double radiusBucket(double radius) {
+        return radius > 0 ? Math.ceil(radius) : 0;
+    }
+
+    /**
+     * Gives a slot to a collidable and reads its bounds.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment.
+     * @return the slot of the collidable.
+     */
+    public int add(Collidable c, int order) {
+        int slot;
+        if (freeSlots.size() > 0) {
+            slot = freeSlots.removeLast();
+        } else {
+            if (highestSlot == collidables.length) {
+                grow();
+            }
+            slot = highestSlot++;
+        }
+        collidables[slot] = c;
+        orders[slot] = order;
+        stamps[slot] = 0;
+        slots.put(c, slot);
+        readBounds(slot);
+        return slot;
+    }
+
+    /**
+     * Frees the slot of a collidable.
+     *
+     * @param c collidable to remove.
+     * @return the freed slot, or -1 if the collidable has no slot.
+     */
+    public int remove(Collidable c) {
+        Integer slot = slots.remove(c);
+        if (slot == null) {
+            return -1;
+        }
+        collidables[slot] = null;
+        freeSlots.add(slot);
+        return slot;
+    }
+
+    /**
+     * Re-reads the bounds of a slot if its collidable's bounds version changed since they were last read.
+     *
+     * @param slot the slot to read.
+     * @return true if the bounds were re-read, false if they didn't change.
+     */
+    public boolean refresh(int slot) {
+        if (versions[slot] == collidables[slot].getBoundsVersion()) {
+            return false;
+        }
+        readBounds(slot);
+        return true;
+    }
+
+    /**
+     * Selects the radius of the objects the next queries are for, overlaps and addCandidate then use the bounds
+     * inflated by its radius bucket.
+     *
+     * @param radius radius of the queried objects, 0 for points.
+     * @return the radius bucket, the amount the query box should be grown by when looking up cells or nodes.
+     */
+    public double selectRadius(double radius) {
+        double bucket = radiusBucket(radius);
+        if (inflated == null || inflated.getRadius() != bucket) {
+            inflated = inflatedByBucket.computeIfAbsent((int) bucket, b -> new InflatedBounds(b));
+        }
+        return bucket;
+    }
+
+    /**
+     * Starts a new query, so every slot can be marked as visited once by markVisited.
+     */
+    public void beginQuery() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Marks a slot as visited by the current query.
+     *
+     * @param slot the slot to mark.
+     * @return true if this is the first visit of the slot in the current query, false otherwise.
+     */
+    public boolean markVisited(int slot) {
+        if (stamps[slot] == stamp) {
+            return false;
+        }
+        stamps[slot] = stamp;
+        return true;
+    }
+
+    /**
+     * Checks if the last read bounds of a slot, inflated by the selected radius bucket, overlap the given box,
+     * touching counts.
+     *
+     * @param slot   slot to check.
+     * @param left   left x of the box.
+     * @param top    top y of the box.
+     * @param right  right x of the box.
+     * @param bottom bottom y of the box.
+     * @return true if they overlap, false otherwise.
+     */
+    public boolean overlaps(int slot, double left, double top, double right, double bottom) {
+        inflate(slot);
+        double padding = SegmentCast.BOX_PADDING;
+        return inflated.getMinX(slot) - padding <= right && left <= inflated.getMaxX(slot) + padding
+                && inflated.getMinY(slot) - padding <= bottom && top <= inflated.getMaxY(slot) + padding;
+    }
+
+    /**
+     * Adds the collidable of a slot to a candidate buffer, with its bounds inflated by the selected
+     * radius bucket.
+     *
+     * @param slot slot of the candidate.
+     * @param out  buffer to add to.
+     */
+    public void addCandidate(int slot, CandidateBuffer out) {
+        inflate(slot);
+        out.add(collidables[slot], orders[slot], inflated.getMinX(slot), inflated.getMinY(slot),
+                inflated.getMaxX(slot), inflated.getMaxY(slot));
+    }
+
+    /**
+     * Adds the collidables of all the used slots to a candidate buffer, with their bounds as they are.
+     *
+     * @param out buffer to add to.
+     */
+    public void addAllCandidates(CandidateBuffer out) {
+        for (int slot = 0; slot < highestSlot; slot++) {
+            if (isUsed(slot)) {
+                out.add(collidables[slot], orders[slot], minX[slot], minY[slot], maxX[slot], maxY[slot]);
+            }
+        }
+    }
+
+    /**
+     * @param c a collidable.
+     * @return slot of the collidable, or -1 if it has none.
+     */
+    public int slotOf(Collidable c) {
+        Integer slot = slots.get(c);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @param slot a slot.
+     * @return true if the slot is taken by a collidable, false if it is free.
+     */
+    public boolean isUsed(int slot) {
+        return collidables[slot] != null;
+    }
+
+    /**
+     * @return one more than the highest slot ever given, every used slot is below it.
+     */
+    public int slotLimit() {
+        return highestSlot;
+    }
+
+    /**
+     * @return number of used slots.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return the collidable of the slot.
+     */
+    public Collidable getCollidable(int slot) {
+        return collidables[slot];
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return the order of the slot's collidable.
+     */
+    public int getOrder(int slot) {
+        return orders[slot];
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return left x of the slot's bounds.
+     */
+    public double getMinX(int slot) {
+        return minX[slot];
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return top y of the slot's bounds.
+     */
+    public double getMinY(int slot) {
+        return minY[slot];
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return right x of the slot's bounds.
+     */
+    public double getMaxX(int slot) {
+        return maxX[slot];
+    }
+
+    /**
+     * @param slot a used slot.
+     * @return bottom y of the slot's bounds.
+     */
+    public double getMaxY(int slot) {
+        return maxY[slot];
+    }
+
+    private void readBounds(int slot) {
+        Collidable c = collidables[slot];
+        minX[slot] = c.getMinX();
+        minY[slot] = c.getMinY();
+        maxX[slot] = c.getMaxX();
+        maxY[slot] = c.getMaxY();
+        versions[slot] = c.getBoundsVersion();
+        readCount++;
+        if (readCount == 0) {
+            // the read counter wrapped around, drop every cached inflation.
+            inflatedByBucket.clear();
+            inflated = null;
+            selectRadius(0);
+            readCount = 1;
+        }
+        reads[slot] = readCount;
+    }
+
+    // makes sure the cached inflation of the slot for the selected bucket comes from its last read.
+    private void inflate(int slot) {
+        if (!inflated.isCurrent(slot, reads[slot])) {
+            inflated.store(slot, reads[slot], minX[slot], minY[slot], maxX[slot], maxY[slot]);
+        }
+    }
+
+    private void grow() {
+        int capacity = 2 * collidables.length;
+        collidables = Arrays.copyOf(collidables, capacity);
+        orders = Arrays.copyOf(orders, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        reads = Arrays.copyOf(reads, capacity);
+    }
+}
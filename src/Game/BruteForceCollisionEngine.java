@@ -0,0 +1,84 @@
+package Game;
+
+/**
+ * Collision engine without an index: every query looks at every collidable, using its current bounds.
+ * the fastest engine for small levels, and always up to date with moving collidables.
+ */
+public class BruteForceCollisionEngine implements CollisionEngine {
+    // fields
+    private final BoundsTable table = new BoundsTable();
+
+    // Methods
+
+    /**
+     * Adds a collidable to the engine.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment.
+     */
+    @Override
+    public void add(Collidable c, int order) {
+        table.add(c, order);
+    }
+
+    /**
+     * Removes a collidable from the engine.
+     *
+     * @param c collidable to remove.
+     * @return true if the collidable was in the engine, false otherwise.
+     */
+    @Override
+    public boolean remove(Collidable c) {
+        return table.remove(c) >= 0;
+    }
+
+    /**
+     * Does nothing, queries always re-read the bounds of collidables that moved.
+     */
+    @Override
+    public void refresh() {
+    }
+
+    /**
+     * @return number of collidables in the engine.
+     */
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Adds every collidable of the engine to out.
+     *
+     * @param out buffer to add the collidables to.
+     */
+    @Override
+    public void collectAll(CandidateBuffer out) {
+        table.addAllCandidates(out);
+    }
+
+    /**
+     * Adds to out every collidable whose current bounds, inflated by the radius bucket, overlap the query box.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object, the bounds are inflated by its radius bucket.
+     * @param out    buffer to add the candidates to.
+     */
+    @Override
+    public void query(double minX, double minY, double maxX, double maxY, double radius, CandidateBuffer out) {
+        table.selectRadius(radius);
+        for (int slot = 0; slot < table.slotLimit(); slot++) {
+            if (!table.isUsed(slot)) {
+                continue;
+            }
+            // re-reading is only a version check for collidables that didn't move.
+            table.refresh(slot);
+            if (table.overlaps(slot, minX, minY, maxX, maxY)) {
+                table.addCandidate(slot, out);
+            }
+        }
+    }
+}
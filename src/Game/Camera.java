@@ -0,0 +1,152 @@
+package Game;
+
+/**
+ * Camera over the world of the game: the viewport, the part of the world that is shown in the window.
+ * world coordinates are mapped to screen coordinates by subtracting the top-left point of the viewport, rounded
+ * down to a whole pixel, and sprites outside the viewport are not drawn (see Game.SpriteCollection.drawAllOn).
+ * when the world is larger than the window the camera scrolls, clamped to the bounds of the world.
+ */
+public class Camera {
+    // fields
+    private final double width;
+    private final double height;
+    private double x = 0;
+    private double y = 0;
+    private double worldWidth;
+    private double worldHeight;
+
+    // constructor
+
+    /**
+     * Creates a camera at the top-left corner of a world the size of the viewport.
+     *
+     * @param width  width of the viewport (the window).
+     * @param height height of the viewport (the window).
+     */
+    public Camera(double width, double height) {
+        this.width = width;
+        this.height = height;
+        this.worldWidth = width;
+        this.worldHeight = height;
+    }
+
+    // Methods
+
+    /**
+     * Sets the size of the world the camera moves over, the viewport never leaves it.
+     *
+     * @param newWorldWidth  width of the world, at least the width of the viewport.
+     * @param newWorldHeight height of the world, at least the height of the viewport.
+     */
+    public void setWorldSize(double newWorldWidth, double newWorldHeight) {
+        this.worldWidth = Math.max(width, newWorldWidth);
+        this.worldHeight = Math.max(height, newWorldHeight);
+        setPosition(x, y);
+    }
+
+    /**
+     * Moves the viewport, clamped to the world.
+     *
+     * @param newX world x of the top-left corner of the viewport.
+     * @param newY world y of the top-left corner of the viewport.
+     */
+    public void setPosition(double newX, double newY) {
+        this.x = Math.max(0, Math.min(newX, worldWidth - width));
+        this.y = Math.max(0, Math.min(newY, worldHeight - height));
+    }
+
+    /**
+     * Moves the viewport so its center is at the given point, as far as the world allows.
+     *
+     * @param centerX world x to center on.
+     * @param centerY world y to center on.
+     */
+    public void centerOn(double centerX, double centerY) {
+        setPosition(centerX - width / 2, centerY - height / 2);
+    }
+
+    /**
+     * @return world x of the left side of the viewport.
+     */
+    public double getMinX() {
+        return x;
+    }
+
+    /**
+     * @return world y of the top side of the viewport.
+     */
+    public double getMinY() {
+        return y;
+    }
+
+    /**
+     * @return world x of the right side of the viewport.
+     */
+    public double getMaxX() {
+        return x + width;
+    }
+
+    /**
+     * @return world y of the bottom side of the viewport.
+     */
+    public double getMaxY() {
+        return y + height;
+    }
+
+    /**
+     * @return width of the viewport.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the viewport.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * @return world x of the left side of the viewport, rounded down to a whole pixel (the screen offset).
+     */
+    public int getPixelX() {
+        return (int) Math.floor(x);
+    }
+
+    /**
+     * @return world y of the top side of the viewport, rounded down to a whole pixel (the screen offset).
+     */
+    public int getPixelY() {
+        return (int) Math.floor(y);
+    }
+
+    /**
+     * @param worldX a world x.
+     * @return the screen x it is shown at, the same pixel Game.CameraSurface draws it at.
+     */
+    public int toScreenX(double worldX) {
+        return (int) Math.floor(worldX) - getPixelX();
+    }
+
+    /**
+     * @param worldY a world y.
+     * @return the screen y it is shown at, the same pixel Game.CameraSurface draws it at.
+     */
+    public int toScreenY(double worldY) {
+        return (int) Math.floor(worldY) - getPixelY();
+    }
+
+    /**
+     * Checks if a box of the world is (partly) in the viewport, touching counts.
+     *
+     * @param minX left x of the box.
+     * @param minY top y of the box.
+     * @param maxX right x of the box.
+     * @param maxY bottom y of the box.
+     * @return true if the box can be seen, false otherwise.
+     */
+    public boolean isVisible(double minX, double minY, double maxX, double maxY) {
+        return minX <= x + width && x <= maxX && minY <= y + height && y <= maxY;
+    }
+}
@@ -0,0 +1,201 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * Draw surface that draws on another surface through a camera: every world coordinate it gets is moved by
+ * the top-left point of the camera's viewport, sizes are kept.
+ * the surface is reused, it is pointed at the target and the camera of every frame with wrap.
+ */
+public class CameraSurface implements DrawSurface {
+    // fields
+    private DrawSurface target;
+    private int offsetX = 0;
+    private int offsetY = 0;
+
+    // Methods
+
+    /**
+     * Points the surface at the surface of a frame and the current position of the camera.
+     *
+     * @param surface the surface to draw on.
+     * @param camera  the camera.
+     * @return this surface.
+     */
+    public CameraSurface wrap(DrawSurface surface, Camera camera) {
+        this.target = surface;
+        this.offsetX = camera.getPixelX();
+        this.offsetY = camera.getPixelY();
+        return this;
+    }
+
+    /**
+     * @return width of the target surface.
+     */
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    /**
+     * @return height of the target surface.
+     */
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    /**
+     * Sets the color of the target surface.
+     *
+     * @param color the color.
+     */
+    @Override
+    public void setColor(Color color) {
+        target.setColor(color);
+    }
+
+    /**
+     * Draws a line given in world coordinates.
+     *
+     * @param x1 x of the start.
+     * @param y1 y of the start.
+     * @param x2 x of the end.
+     * @param y2 y of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        target.drawLine(x1 - offsetX, y1 - offsetY, x2 - offsetX, y2 - offsetY);
+    }
+
+    /**
+     * Draws an oval outline given in world coordinates.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        target.drawOval(x - offsetX, y - offsetY, width, height);
+    }
+
+    /**
+     * Draws a filled oval given in world coordinates.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        target.fillOval(x - offsetX, y - offsetY, width, height);
+    }
+
+    /**
+     * Draws a rectangle outline given in world coordinates.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        target.drawRectangle(x - offsetX, y - offsetY, width, height);
+    }
+
+    /**
+     * Draws a filled rectangle given in world coordinates.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        target.fillRectangle(x - offsetX, y - offsetY, width, height);
+    }
+
+    /**
+     * Draws an image given in world coordinates.
+     *
+     * @param x     left x.
+     * @param y     top y.
+     * @param image the image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        target.drawImage(x - offsetX, y - offsetY, image);
+    }
+
+    /**
+     * Draws a circle outline given in world coordinates.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        target.drawCircle(x - offsetX, y - offsetY, radius);
+    }
+
+    /**
+     * Draws a filled circle given in world coordinates.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        target.fillCircle(x - offsetX, y - offsetY, radius);
+    }
+
+    /**
+     * Draws a text given in world coordinates.
+     *
+     * @param x        left x.
+     * @param y        baseline y.
+     * @param s        the text.
+     * @param fontSize font size.
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        target.drawText(x - offsetX, y - offsetY, s, fontSize);
+    }
+
+    /**
+     * Draws a polygon outline given in world coordinates.
+     *
+     * @param p the polygon, not changed.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        target.drawPolygon(translated(p));
+    }
+
+    /**
+     * Draws a filled polygon given in world coordinates.
+     *
+     * @param p the polygon, not changed.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        target.fillPolygon(translated(p));
+    }
+
+    private Polygon translated(Polygon p) {
+        Polygon moved = new Polygon(p.xpoints, p.ypoints, p.npoints);
+        moved.translate(-offsetX, -offsetY);
+        return moved;
+    }
+}
@@ -0,0 +1,149 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of broadphase candidates: collidables that a query box might touch, each with
+ * the order in which it was added to the environment and its bounds as the engine tested them
+ * (inflated by the radius bucket of the query).
+ */
+public class CandidateBuffer {
+    // fields
+    private Collidable[] collidables = new Collidable[16];
+    private int[] orders = new int[16];
+    // bounds are kept in one array per side (structure of arrays), so kernels can load several candidates at once.
+    private double[] minXs = new double[16];
+    private double[] minYs = new double[16];
+    private double[] maxXs = new double[16];
+    private double[] maxYs = new double[16];
+    private int size = 0;
+
+    // Methods
+
+    /**
+     * Adds a candidate to the buffer.
+     *
+     * @param c     the candidate collidable.
+     * @param order the order in which the candidate was added to the environment.
+     * @param minX  left x of the candidate's bounds.
+     * @param minY  top y of the candidate's bounds.
+     * @param maxX  right x of the candidate's bounds.
+     * @param maxY  bottom y of the candidate's bounds.
+     */
+    public void add(Collidable c, int order, double minX, double minY, double maxX, double maxY) {
+        if (size == collidables.length) {
+            collidables = Arrays.copyOf(collidables, 2 * size);
+            orders = Arrays.copyOf(orders, 2 * size);
+            minXs = Arrays.copyOf(minXs, 2 * size);
+            minYs = Arrays.copyOf(minYs, 2 * size);
+            maxXs = Arrays.copyOf(maxXs, 2 * size);
+            maxYs = Arrays.copyOf(maxYs, 2 * size);
+        }
+        collidables[size] = c;
+        orders[size] = order;
+        minXs[size] = minX;
+        minYs[size] = minY;
+        maxXs[size] = maxX;
+        maxYs[size] = maxY;
+        size++;
+    }
+
+    /**
+     * Removes all the candidates of the buffer.
+     */
+    public void clear() {
+        Arrays.fill(collidables, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * @return number of candidates in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return the candidate collidable.
+     */
+    public Collidable getCollidable(int index) {
+        return collidables[index];
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return the order in which the candidate was added to the environment.
+     */
+    public int getOrder(int index) {
+        return orders[index];
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return left x of the candidate's bounds.
+     */
+    public double getMinX(int index) {
+        return minXs[index];
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return top y of the candidate's bounds.
+     */
+    public double getMinY(int index) {
+        return minYs[index];
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return right x of the candidate's bounds.
+     */
+    public double getMaxX(int index) {
+        return maxXs[index];
+    }
+
+    /**
+     * @param index index of a candidate.
+     * @return bottom y of the candidate's bounds.
+     */
+    public double getMaxY(int index) {
+        return maxYs[index];
+    }
+
+    /**
+     * Returns the left x of all the candidates' bounds, read only, valid up to size().
+     *
+     * @return the left x array of the buffer.
+     */
+    public double[] minXArray() {
+        return minXs;
+    }
+
+    /**
+     * Returns the top y of all the candidates' bounds, read only, valid up to size().
+     *
+     * @return the top y array of the buffer.
+     */
+    public double[] minYArray() {
+        return minYs;
+    }
+
+    /**
+     * Returns the right x of all the candidates' bounds, read only, valid up to size().
+     *
+     * @return the right x array of the buffer.
+     */
+    public double[] maxXArray() {
+        return maxXs;
+    }
+
+    /**
+     * Returns the bottom y of all the candidates' bounds, read only, valid up to size().
+     *
+     * @return the bottom y array of the buffer.
+     */
+    public double[] maxYArray() {
+        return maxYs;
+    }
+}
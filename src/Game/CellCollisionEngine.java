@@ -0,0 +1,191 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * Base of the collision engines that split the world into equal rectangular cells.
+ * every collidable is listed in each cell its bounds overlap, and a query visits only the cells
+ * that overlap the query box.
+ */
+public abstract class CellCollisionEngine implements CollisionEngine {
+    // fields
+    private final BoundsTable table = new BoundsTable();
+    private final double cellWidth;
+    private final double cellHeight;
+    // cell range of every slot, as minCellX, minCellY, maxCellX, maxCellY.
+    private int[] cellRanges = new int[64];
+
+    // constructor
+
+    /**
+     * Creates an empty engine with cells of the given size.
+     *
+     * @param cellWidth  width of a cell.
+     * @param cellHeight height of a cell.
+     */
+    public CellCollisionEngine(double cellWidth, double cellHeight) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    // Methods
+
+    /**
+     * Returns the list of slots of a cell.
+     *
+     * @param cellX  column of the cell.
+     * @param cellY  row of the cell.
+     * @param create true to create the cell if it doesn't exist.
+     * @return the list of slots in the cell, or null if it doesn't exist and create is false.
+     */
+    protected abstract IntList getCell(int cellX, int cellY, boolean create);
+
+    /**
+     * Limits a column to the columns of the engine.
+     *
+     * @param cellX a column.
+     * @return the nearest column of the engine.
+     */
+    protected abstract int clampCellX(int cellX);
+
+    /**
+     * Limits a row to the rows of the engine.
+     *
+     * @param cellY a row.
+     * @return the nearest row of the engine.
+     */
+    protected abstract int clampCellY(int cellY);
+
+    /**
+     * Adds a collidable to the cells its bounds overlap.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment.
+     */
+    @Override
+    public void add(Collidable c, int order) {
+        int slot = table.add(c, order);
+        if (cellRanges.length < 4 * (slot + 1)) {
+            cellRanges = Arrays.copyOf(cellRanges, Math.max(2 * cellRanges.length, 4 * (slot + 1)));
+        }
+        insert(slot);
+    }
+
+    /**
+     * Removes a collidable from its cells.
+     *
+     * @param c collidable to remove.
+     * @return true if the collidable was in the engine, false otherwise.
+     */
+    @Override
+    public boolean remove(Collidable c) {
+        int slot = table.slotOf(c);
+        if (slot < 0) {
+            return false;
+        }
+        erase(slot);
+        table.remove(c);
+        return true;
+    }
+
+    /**
+     * Moves every collidable whose bounds changed to the cells of its new bounds.
+     */
+    @Override
+    public void refresh() {
+        for (int slot = 0; slot < table.slotLimit(); slot++) {
+            if (table.isUsed(slot) && table.refresh(slot)) {
+                erase(slot);
+                insert(slot);
+            }
+        }
+    }
+
+    /**
+     * @return number of collidables in the engine.
+     */
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Adds every collidable of the engine to out.
+     *
+     * @param out buffer to add the collidables to.
+     */
+    @Override
+    public void collectAll(CandidateBuffer out) {
+        table.addAllCandidates(out);
+    }
+
+    /**
+     * Adds to out the collidables of the cells that overlap the query box (grown by the radius bucket),
+     * if their inflated bounds overlap it too.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object, the bounds are inflated by its radius bucket.
+     * @param out    buffer to add the candidates to.
+     */
+    @Override
+    public void query(double minX, double minY, double maxX, double maxY, double radius, CandidateBuffer out) {
+        double grow = table.selectRadius(radius) + SegmentCast.BOX_PADDING;
+        int fromX = cellX(minX - grow);
+        int fromY = cellY(minY - grow);
+        int toX = cellX(maxX + grow);
+        int toY = cellY(maxY + grow);
+        table.beginQuery();
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                IntList cell = getCell(cellX, cellY, false);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    int slot = cell.get(i);
+                    if (table.markVisited(slot) && table.overlaps(slot, minX, minY, maxX, maxY)) {
+                        table.addCandidate(slot, out);
+                    }
+                }
+            }
+        }
+    }
+
+    // lists the slot in every cell its bounds overlap.
+    private void insert(int slot) {
+        int o = 4 * slot;
+        cellRanges[o] = cellX(table.getMinX(slot));
+        cellRanges[o + 1] = cellY(table.getMinY(slot));
+        cellRanges[o + 2] = cellX(table.getMaxX(slot));
+        cellRanges[o + 3] = cellY(table.getMaxY(slot));
+        for (int cellY = cellRanges[o + 1]; cellY <= cellRanges[o + 3]; cellY++) {
+            for (int cellX = cellRanges[o]; cellX <= cellRanges[o + 2]; cellX++) {
+                getCell(cellX, cellY, true).add(slot);
+            }
+        }
+    }
+
+    // removes the slot from the cells it was listed in.
+    private void erase(int slot) {
+        int o = 4 * slot;
+        for (int cellY = cellRanges[o + 1]; cellY <= cellRanges[o + 3]; cellY++) {
+            for (int cellX = cellRanges[o]; cellX <= cellRanges[o + 2]; cellX++) {
+                IntList cell = getCell(cellX, cellY, false);
+                if (cell != null) {
+                    cell.removeValue(slot);
+                }
+            }
+        }
+    }
+
+    private int cellX(double x) {
+        return clampCellX((int) Math.floor(x / cellWidth));
+    }
+
+    private int cellY(double y) {
+        return clampCellY((int) Math.floor(y / cellHeight));
+    }
+}
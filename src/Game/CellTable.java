@@ -0,0 +1,116 @@
+package Game;
+
+/**
+ * Hash table from the packed key of a grid cell to the list of ids in the cell, used by the grids of the
+ * collision engines and the block store.
+ * keys are primitive longs in an open addressing table (linear probing), so a lookup boxes nothing. cells are
+ * never removed, a cell that empties keeps its (empty) list.
+ */
+public class CellTable {
+    // constants
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // fields
+    private long[] keys;
+    private IntList[] values;
+    private int size;
+    private int shift;
+
+    // constructor
+
+    /**
+     * Creates an empty table.
+     */
+    public CellTable() {
+        keys = new long[16];
+        values = new IntList[16];
+        size = 0;
+        shift = Long.SIZE - 4;
+    }
+
+    // Methods
+
+    /**
+     * Packs the column and row of a cell into one key.
+     *
+     * @param cellX column of the cell.
+     * @param cellY row of the cell.
+     * @return the key of the cell.
+     */
+    public static long key(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the list of a cell.
+     *
+     * @param key key of the cell.
+     * @return the list of the cell, or null if the cell doesn't exist.
+     */
+    public IntList get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the list of a cell, creating an empty one if the cell doesn't exist.
+     *
+     * @param key key of the cell.
+     * @return the list of the cell.
+     */
+    public IntList getOrCreate(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        IntList cell = new IntList();
+        keys[slot] = key;
+        values[slot] = cell;
+        size++;
+        if (2 * size > keys.length) {
+            grow();
+        }
+        return cell;
+    }
+
+    /**
+     * @return number of cells in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    // home slot of a key, from the high bits of a multiplicative hash.
+    private int slotOf(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    // doubles the table, keeping it at most half full so probe sequences stay short.
+    private void grow() {
+        long[] oldKeys = keys;
+        IntList[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new IntList[2 * oldValues.length];
+        shift--;
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = slotOf(oldKeys[i]);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
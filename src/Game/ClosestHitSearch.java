@@ -0,0 +1,147 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * Front-to-back search for the closest collision of one cast segment.
+ * candidates are offered with the parameter at which the segment enters their (inflated) box, and are swept
+ * exactly in increasing order of it. the search keeps the best parameter found so far, and stops as soon as
+ * the next candidate enters its box after it, since no remaining candidate can be closer.
+ * the result carries the parameter, sides and normal of the hit.
+ */
+public class ClosestHitSearch {
+    // fields
+    private Collidable[] collidables = new Collidable[16];
+    private double[] entryTimes = new double[16];
+    private int[] orders = new int[16];
+    private int size = 0;
+
+    // Methods
+
+    /**
+     * Removes all the candidates of the previous search.
+     */
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            collidables[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Offers a candidate to the search.
+     *
+     * @param c         the candidate collidable.
+     * @param entryTime parameter at which the segment enters the candidate's bounds (see SegmentCast.entryTime).
+     * @param order     position of the candidate in the environment, the lower one wins equally close hits.
+     */
+    public void offer(Collidable c, double entryTime, int order) {
+        if (entryTime == SegmentCast.NO_HIT) {
+            return;
+        }
+        if (size == collidables.length) {
+            grow();
+        }
+        // sift up in a binary min-heap keyed by (entryTime, order).
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!isBefore(entryTime, order, entryTimes[parent], orders[parent])) {
+                break;
+            }
+            moveEntry(parent, i);
+            i = parent;
+        }
+        setEntry(i, c, entryTime, order);
+    }
+
+    /**
+     * Runs the search over the offered candidates and writes the closest collision to out.
+     *
+     * @param cast the segment that is being cast.
+     * @param out  slot to write the result to, cleared if there is no collision.
+     */
+    public void run(SegmentCast cast, CollisionResult out) {
+        out.clear();
+        double bestTime = Double.POSITIVE_INFINITY;
+        int bestOrder = Integer.MAX_VALUE;
+        Collidable best = null;
+        int bestSides = CollisionInfo.NO_SIDE;
+        double bestNormalX = 0;
+        double bestNormalY = 0;
+
+        while (size > 0 && entryTimes[0] <= bestTime) {
+            Collidable c = collidables[0];
+            int order = orders[0];
+            popMin();
+
+            double t = cast.sweep(c.getMinX(), c.getMinY(), c.getMaxX(), c.getMaxY());
+            if (t == SegmentCast.NO_HIT) {
+                continue;
+            }
+            if (t < bestTime || (t == bestTime && order < bestOrder)) {
+                bestTime = t;
+                bestOrder = order;
+                best = c;
+                bestSides = cast.getHitSides();
+                bestNormalX = cast.getHitNormalX();
+                bestNormalY = cast.getHitNormalY();
+            }
+        }
+        reset();
+        if (best != null) {
+            out.set(cast.xAt(bestTime), cast.yAt(bestTime), bestTime, bestSides, bestNormalX, bestNormalY, best);
+        }
+    }
+
+    // removes the first candidate of the heap.
+    private void popMin() {
+        size--;
+        Collidable lastCollidable = collidables[size];
+        double lastTime = entryTimes[size];
+        int lastOrder = orders[size];
+        collidables[size] = null;
+        if (size == 0) {
+            return;
+        }
+        // sift the last candidate down from the root.
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isBefore(entryTimes[child + 1], orders[child + 1],
+                    entryTimes[child], orders[child])) {
+                child++;
+            }
+            if (!isBefore(entryTimes[child], orders[child], lastTime, lastOrder)) {
+                break;
+            }
+            moveEntry(child, i);
+            i = child;
+        }
+        setEntry(i, lastCollidable, lastTime, lastOrder);
+    }
+
+    private static boolean isBefore(double time1, int order1, double time2, int order2) {
+        return time1 < time2 || (time1 == time2 && order1 < order2);
+    }
+
+    private void moveEntry(int from, int to) {
+        setEntry(to, collidables[from], entryTimes[from], orders[from]);
+    }
+
+    private void setEntry(int i, Collidable c, double entryTime, int order) {
+        collidables[i] = c;
+        entryTimes[i] = entryTime;
+        orders[i] = order;
+    }
+
+    private void grow() {
+        int capacity = collidables.length * 2;
+        collidables = Arrays.copyOf(collidables, capacity);
+        entryTimes = Arrays.copyOf(entryTimes, capacity);
+        orders = Arrays.copyOf(orders, capacity);
+    }
+}
@@ -2,7 +2,7 @@ package Game;
 
 import Geometry.Ball;
 import Geometry.Point;
-import Geometry.Rectangle;
+import Geometry.ReadOnlyRectangle;
 import Geometry.Velocity;
 
 /**
@@ -16,7 +16,35 @@ public interface Collidable {
     /**
      * @return the collision shape of the object.
      */
-    Rectangle getCollisionRectangle();
+    ReadOnlyRectangle getCollisionRectangle();
+
+    /**
+     * @return left x of the collision shape's bounds.
+     */
+    double getMinX();
+
+    /**
+     * @return top y of the collision shape's bounds.
+     */
+    double getMinY();
+
+    /**
+     * @return right x of the collision shape's bounds.
+     */
+    double getMaxX();
+
+    /**
+     * @return bottom y of the collision shape's bounds.
+     */
+    double getMaxY();
+
+    /**
+     * Returns a counter that changes whenever the bounds change, so indexes can tell that a collidable moved
+     * without reading and comparing its bounds.
+     *
+     * @return the bounds version of the object.
+     */
+    int getBoundsVersion();
 
     /**
      * Notify the object that we collided with it at collisionPoint with a given velocity.
@@ -27,4 +55,22 @@ public interface Collidable {
      * @return new velocity expected after the hit.
      */
     Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity);
+
+    /**
+     * Notify the object that we collided with it, with the collision found by the intersection kernel.
+     * the collision point of the kernel is the centre of the ball when it touches the collidable, not a point
+     * on the collidable. collidables that can respond from the hit sides and normal should override this,
+     * by default it falls back to hit(Ball, Point, Velocity) with the contact point: the point of the bounds
+     * nearest to the centre of the ball.
+     *
+     * @param hitter          the ball that is hitting the collidable
+     * @param collision       the collision, with the hit sides and parameter.
+     * @param currentVelocity velocity before hit.
+     * @return new velocity expected after the hit.
+     */
+    default Velocity hit(Ball hitter, CollisionInfo collision, Velocity currentVelocity) {
+        Point contact = new Point(Math.max(getMinX(), Math.min(getMaxX(), collision.getX())),
+                Math.max(getMinY(), Math.min(getMaxY(), collision.getY())));
+        return hit(hitter, contact, currentVelocity);
+    }
 }
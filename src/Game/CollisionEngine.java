@@ -0,0 +1,55 @@
+package Game;
+
+/**
+ * The broadphase of a Game.GameEnvironment: holds collidables and finds the ones that might touch a box.
+ * engines only narrow down the candidates, the exact closest hit is found by the environment.
+ */
+public interface CollisionEngine {
+
+    /**
+     * Adds a collidable to the engine.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment, the lower one wins equally close hits.
+     */
+    void add(Collidable c, int order);
+
+    /**
+     * Removes a collidable from the engine.
+     *
+     * @param c collidable to remove.
+     * @return true if the collidable was in the engine, false otherwise.
+     */
+    boolean remove(Collidable c);
+
+    /**
+     * Re-reads the bounds of the collidables, and re-indexes the ones that moved since they were indexed.
+     */
+    void refresh();
+
+    /**
+     * @return number of collidables in the engine.
+     */
+    int size();
+
+    /**
+     * Adds every collidable of the engine to out.
+     *
+     * @param out buffer to add the collidables to.
+     */
+    void collectAll(CandidateBuffer out);
+
+    /**
+     * Adds to out every collidable whose box, inflated by the radius bucket of the given radius
+     * (see Game.BoundsTable.radiusBucket), might overlap the given box (touching counts).
+     * every collidable is added at most once, with its inflated bounds.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object, the bounds are inflated by its radius bucket.
+     * @param out    buffer to add the candidates to.
+     */
+    void query(double minX, double minY, double maxX, double maxY, double radius, CandidateBuffer out);
+}
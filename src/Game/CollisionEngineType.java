@@ -0,0 +1,88 @@
+package Game;
+
+/**
+ * The collision engines a game can run with.
+ */
+public enum CollisionEngineType {
+    /**
+     * No index, every query looks at every collidable.
+     */
+    BRUTE_FORCE,
+    /**
+     * Unbounded uniform grid.
+     */
+    GRID,
+    /**
+     * Bounding volume hierarchy.
+     */
+    TREE,
+    /**
+     * Dense tile map over the world rectangle.
+     */
+    TILE_MAP,
+    /**
+     * Picks and switches between the other engines by collidable count and measured query cost.
+     */
+    AUTO;
+
+    /**
+     * Name of the system property that selects the engine of new games, e.g. -Dgame.collisionEngine=grid.
+     */
+    public static final String PROPERTY = "game.collisionEngine";
+
+    /**
+     * Size of a tile of the tile map engine.
+     */
+    public static final double TILE_SIZE = 32;
+
+    /**
+     * Creates a new, empty engine of this type.
+     *
+     * @param worldWidth  width of the game world.
+     * @param worldHeight height of the game world.
+     * @return a new engine.
+     */
+    public CollisionEngine create(double worldWidth, double worldHeight) {
+        switch (this) {
+            case GRID:
+                return new GridCollisionEngine();
+            case TREE:
+                return new TreeCollisionEngine();
+            case TILE_MAP:
+                return new TileMapCollisionEngine(worldWidth, worldHeight, TILE_SIZE, TILE_SIZE);
+            case AUTO:
+                return new AutoCollisionEngine(worldWidth, worldHeight);
+            default:
+                return new BruteForceCollisionEngine();
+        }
+    }
+
+    /**
+     * Returns the type with the given name, ignoring case and accepting '-' for '_' (e.g. "tile-map").
+     *
+     * @param name         name of a type.
+     * @param defaultValue type to return if name is null or doesn't name a type.
+     * @return the named type, or defaultValue.
+     */
+    public static CollisionEngineType fromName(String name, CollisionEngineType defaultValue) {
+        if (name == null) {
+            return defaultValue;
+        }
+        String normalized = name.trim().toUpperCase().replace('-', '_');
+        for (CollisionEngineType type : values()) {
+            if (type.name().equals(normalized)) {
+                return type;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns the type selected by the game.collisionEngine system property.
+     *
+     * @return the selected type, or AUTO if the property is not set.
+     */
+    public static CollisionEngineType fromSystemProperty() {
+        return fromName(System.getProperty(PROPERTY), AUTO);
+    }
+}
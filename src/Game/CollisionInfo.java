@@ -1,12 +1,43 @@
 package Game;
 
 import Geometry.Point;
+import Utils.Utility;
 
 /**
  * The Game.CollisionInfo class represents information about a collision event,
  * including the point where the collision occurred and the object involved in the collision.
+ * when the collision comes from the intersection kernel, it also carries which sides of the object were hit,
+ * the normal of the hit and its parameter along the trajectory, so the response needs no geometry work.
+ * for a ball, the collision point is the ball's centre at the moment it touches the object.
  */
 public class CollisionInfo {
+    // constants
+
+    /**
+     * No side was hit (the sides are unknown).
+     */
+    public static final int NO_SIDE = 0;
+
+    /**
+     * The top side of the collision shape was hit.
+     */
+    public static final int TOP = 1;
+
+    /**
+     * The right side of the collision shape was hit.
+     */
+    public static final int RIGHT = 2;
+
+    /**
+     * The bottom side of the collision shape was hit.
+     */
+    public static final int BOTTOM = 4;
+
+    /**
+     * The left side of the collision shape was hit.
+     */
+    public static final int LEFT = 8;
+
     // fields
 
     /**
@@ -19,17 +50,72 @@ public class CollisionInfo {
      */
     private final Collidable collisionObject;
 
+    /**
+     * The sides that were hit, a corner hit sets two of them.
+     */
+    private final int sides;
+
+    /**
+     * The parameter of the collision point along the trajectory, 0 at its start and 1 at its end.
+     */
+    private final double t;
+
+    /**
+     * The x part of the outward unit normal of the hit.
+     */
+    private final double normalX;
+
+    /**
+     * The y part of the outward unit normal of the hit.
+     */
+    private final double normalY;
+
     // constructor
 
     /**
      * Constructs a Game.CollisionInfo instance with the given collision point and collidable object.
+     * the sides are worked out from the point and the object's bounds, and the parameter is unknown (NaN).
      *
      * @param collisionPoint  the point where the collision occurred
      * @param collisionObject the object that was involved in the collision
      */
     public CollisionInfo(Point collisionPoint, Collidable collisionObject) {
+        this(collisionPoint, collisionObject, sidesAt(collisionPoint.getX(), collisionPoint.getY(), collisionObject),
+                Double.NaN);
+    }
+
+    /**
+     * Constructs a Game.CollisionInfo instance with the sides and parameter found by the intersection kernel.
+     *
+     * @param collisionPoint  the point where the collision occurred
+     * @param collisionObject the object that was involved in the collision
+     * @param sides           the sides that were hit, a combination of TOP, RIGHT, BOTTOM and LEFT
+     * @param t               parameter of the collision point along the trajectory
+     */
+    public CollisionInfo(Point collisionPoint, Collidable collisionObject, int sides, double t) {
+        this(collisionPoint, collisionObject, sides, t, normalPart(sides, RIGHT, LEFT),
+                normalPart(sides, BOTTOM, TOP));
+    }
+
+    /**
+     * Constructs a Game.CollisionInfo instance with the sides, parameter and exact normal found by the
+     * intersection kernel (rounded corners have normals that are not along the sides).
+     *
+     * @param collisionPoint  the point where the collision occurred
+     * @param collisionObject the object that was involved in the collision
+     * @param sides           the sides that were hit, a combination of TOP, RIGHT, BOTTOM and LEFT
+     * @param t               parameter of the collision point along the trajectory
+     * @param normalX         x part of the outward unit normal of the hit
+     * @param normalY         y part of the outward unit normal of the hit
+     */
+    public CollisionInfo(Point collisionPoint, Collidable collisionObject, int sides, double t,
+                         double normalX, double normalY) {
         this.collisionPoint = collisionPoint;
         this.collisionObject = collisionObject;
+        this.sides = sides;
+        this.t = t;
+        this.normalX = normalX;
+        this.normalY = normalY;
     }
 
     /**
@@ -49,4 +135,127 @@ public class CollisionInfo {
     public Collidable collisionObject() {
         return collisionObject;
     }
+
+    /**
+     * @return x coordinate of the collision point.
+     */
+    public double getX() {
+        return collisionPoint.getX();
+    }
+
+    /**
+     * @return y coordinate of the collision point.
+     */
+    public double getY() {
+        return collisionPoint.getY();
+    }
+
+    /**
+     * @return the sides that were hit, a combination of TOP, RIGHT, BOTTOM and LEFT.
+     */
+    public int getSides() {
+        return sides;
+    }
+
+    /**
+     * @return true if the top or bottom side was hit, so the vertical direction should flip.
+     */
+    public boolean isHorizontalSideHit() {
+        return (sides & (TOP | BOTTOM)) != 0;
+    }
+
+    /**
+     * @return true if the left or right side was hit, so the horizontal direction should flip.
+     */
+    public boolean isVerticalSideHit() {
+        return (sides & (LEFT | RIGHT)) != 0;
+    }
+
+    /**
+     * Returns the x part of the outward unit normal of the hit.
+     * when only the sides are known, corners get the diagonal between their sides.
+     *
+     * @return x part of the normal.
+     */
+    public double getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * Returns the y part of the outward unit normal of the hit.
+     * when only the sides are known, corners get the diagonal between their sides.
+     *
+     * @return y part of the normal.
+     */
+    public double getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * @return parameter of the collision point along the trajectory, NaN if unknown.
+     */
+    public double getT() {
+        return t;
+    }
+
+    /**
+     * Works out which sides of an object's bounds a point lies on, with the same tolerance as
+     * Geometry.Line.isPointOnSegment.
+     *
+     * @param x      x of the point.
+     * @param y      y of the point.
+     * @param object the object whose bounds are checked.
+     * @return the sides the point lies on, a combination of TOP, RIGHT, BOTTOM and LEFT.
+     */
+    public static int sidesAt(double x, double y, Collidable object) {
+        return sidesAt(x, y, object.getMinX(), object.getMinY(), object.getMaxX(), object.getMaxY());
+    }
+
+    /**
+     * Works out which sides of a box a point lies on, with the same tolerance as
+     * Geometry.Line.isPointOnSegment.
+     *
+     * @param x    x of the point.
+     * @param y    y of the point.
+     * @param minX left x of the box.
+     * @param minY top y of the box.
+     * @param maxX right x of the box.
+     * @param maxY bottom y of the box.
+     * @return the sides the point lies on, a combination of TOP, RIGHT, BOTTOM and LEFT.
+     */
+    public static int sidesAt(double x, double y, double minX, double minY, double maxX, double maxY) {
+        boolean inX = Utility.doubleGE(x, minX) && Utility.doubleLE(x, maxX);
+        boolean inY = Utility.doubleGE(y, minY) && Utility.doubleLE(y, maxY);
+
+        int result = NO_SIDE;
+        if (inX && Utility.doubleEquals(y, minY)) {
+            result |= TOP;
+        }
+        if (inY && Utility.doubleEquals(x, maxX)) {
+            result |= RIGHT;
+        }
+        if (inX && Utility.doubleEquals(y, maxY)) {
+            result |= BOTTOM;
+        }
+        if (inY && Utility.doubleEquals(x, minX)) {
+            result |= LEFT;
+        }
+        return result;
+    }
+
+    // one part of the unit normal of the given sides: +1 for the positive side, -1 for the negative one,
+    // scaled down for corners.
+    static double normalPart(int sides, int positiveSide, int negativeSide) {
+        double part = 0;
+        if ((sides & positiveSide) != 0) {
+            part++;
+        }
+        if ((sides & negativeSide) != 0) {
+            part--;
+        }
+        if (part != 0 && (sides & (TOP | BOTTOM)) != 0 && (sides & (LEFT | RIGHT)) != 0) {
+            part *= Math.sqrt(0.5);
+        }
+        return part;
+    }
 }
@@ -0,0 +1,135 @@
+package Game;
+
+import Geometry.Point;
+
+/**
+ * A reusable, mutable slot that holds the result of one trajectory query in a batch.
+ * unlike Game.CollisionInfo, a result slot is meant to be filled again every tick instead of allocated.
+ */
+public class CollisionResult {
+    // fields
+    private boolean hit;
+    private double x;
+    private double y;
+    private double t;
+    private int sides;
+    private double normalX;
+    private double normalY;
+    private Collidable collidable;
+
+    // constructor
+
+    /**
+     * Creates an empty result slot (no collision).
+     */
+    public CollisionResult() {
+        clear();
+    }
+
+    // Methods
+
+    /**
+     * Marks this slot as holding no collision.
+     */
+    public void clear() {
+        this.hit = false;
+        this.x = 0;
+        this.y = 0;
+        this.t = 0;
+        this.sides = CollisionInfo.NO_SIDE;
+        this.normalX = 0;
+        this.normalY = 0;
+        this.collidable = null;
+    }
+
+    /**
+     * Fills this slot with a collision.
+     *
+     * @param collisionX x coordinate of the collision point.
+     * @param collisionY y coordinate of the collision point.
+     * @param collisionT parameter of the collision point along the trajectory.
+     * @param hitSides   the sides that were hit (see Game.CollisionInfo).
+     * @param nx         x part of the outward unit normal of the hit.
+     * @param ny         y part of the outward unit normal of the hit.
+     * @param object     the collidable that is being hit.
+     */
+    public void set(double collisionX, double collisionY, double collisionT, int hitSides, double nx, double ny,
+                    Collidable object) {
+        this.hit = true;
+        this.x = collisionX;
+        this.y = collisionY;
+        this.t = collisionT;
+        this.sides = hitSides;
+        this.normalX = nx;
+        this.normalY = ny;
+        this.collidable = object;
+    }
+
+    /**
+     * @return true if this slot holds a collision, false otherwise.
+     */
+    public boolean isHit() {
+        return hit;
+    }
+
+    /**
+     * @return x coordinate of the collision point.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return y coordinate of the collision point.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return parameter of the collision point along the trajectory.
+     */
+    public double getT() {
+        return t;
+    }
+
+    /**
+     * @return the sides that were hit (see Game.CollisionInfo).
+     */
+    public int getSides() {
+        return sides;
+    }
+
+    /**
+     * @return x part of the outward unit normal of the hit.
+     */
+    public double getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * @return y part of the outward unit normal of the hit.
+     */
+    public double getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * @return the collidable that is being hit, or null if there is no collision.
+     */
+    public Collidable getCollidable() {
+        return collidable;
+    }
+
+    /**
+     * Creates a Game.CollisionInfo out of this slot.
+     *
+     * @return collision info of this slot, or null if there is no collision.
+     */
+    public CollisionInfo toCollisionInfo() {
+        if (!hit) {
+            return null;
+        }
+        return new CollisionInfo(new Point(x, y), collidable, sides, t, normalX, normalY);
+    }
+}
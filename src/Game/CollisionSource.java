@@ -0,0 +1,31 @@
+package Game;
+
+/**
+ * A group of collidables that indexes itself, and that the environment asks for candidates on every query
+ * next to its collision engines (stores of blocks).
+ */
+public interface CollisionSource {
+
+    //Methods
+
+    /**
+     * Adds to out the collidables whose bounds, inflated by the radius bucket of the given radius (see
+     * BoundsTable.radiusBucket), overlap the given box, touching counts (see Game.CollisionEngine.query).
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object.
+     * @param order  order the environment gave the source, shared by all of its collidables.
+     * @param out    buffer to add the candidates to.
+     */
+    void query(double minX, double minY, double maxX, double maxY, double radius, int order, CandidateBuffer out);
+
+    /**
+     * Returns the number of times collidables were added to or removed from the source.
+     *
+     * @return the modification count of the source.
+     */
+    int getModificationCount();
+}
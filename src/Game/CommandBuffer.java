@@ -0,0 +1,460 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Draw surface that records the drawing commands of a frame instead of drawing them, so the frame can be drawn
+ * later, on another thread, by replaying it on a real surface.
+ * the commands are kept in a flat int array (an opcode and its int arguments), with the colors, texts, images
+ * and copies of the polygons they use in a parallel object array. a buffer is cleared and reused for every
+ * frame, so recording a frame allocates nothing once the arrays are big enough.
+ * a buffer can be written to a stream and read back (see Game.DrawRecorder), images are written as their size
+ * only and read back as blank images.
+ */
+public class CommandBuffer implements DrawSurface {
+    // opcodes
+    private static final int SET_COLOR = 0;
+    private static final int DRAW_LINE = 1;
+    private static final int DRAW_OVAL = 2;
+    private static final int FILL_OVAL = 3;
+    private static final int DRAW_RECTANGLE = 4;
+    private static final int FILL_RECTANGLE = 5;
+    private static final int DRAW_IMAGE = 6;
+    private static final int DRAW_CIRCLE = 7;
+    private static final int FILL_CIRCLE = 8;
+    private static final int DRAW_TEXT = 9;
+    private static final int DRAW_POLYGON = 10;
+    private static final int FILL_POLYGON = 11;
+
+    // object tags of written buffers
+    private static final int COLOR_TAG = 0;
+    private static final int TEXT_TAG = 1;
+    private static final int POLYGON_TAG = 2;
+    private static final int IMAGE_TAG = 3;
+
+    // fields
+    private final int width;
+    private final int height;
+    private int[] ints = new int[1024];
+    private Object[] objects = new Object[64];
+    private int intCount = 0;
+    private int objectCount = 0;
+    private int commandCount = 0;
+    private int stateChanges = 0;
+    private Color lastColor = null;
+    private long frame = 0;
+
+    // constructor
+
+    /**
+     * Creates an empty buffer for frames of the given size.
+     *
+     * @param width  width of the surface the frames are drawn on.
+     * @param height height of the surface the frames are drawn on.
+     */
+    public CommandBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // Methods
+
+    /**
+     * Removes all the recorded commands, to record a new frame.
+     *
+     * @param frameNumber number of the new frame.
+     */
+    public void reset(long frameNumber) {
+        Arrays.fill(objects, 0, objectCount, null);
+        intCount = 0;
+        objectCount = 0;
+        commandCount = 0;
+        stateChanges = 0;
+        lastColor = null;
+        frame = frameNumber;
+    }
+
+    /**
+     * Writes the recorded frame to a stream.
+     *
+     * @param out the stream.
+     * @throws IOException if writing fails.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(frame);
+        out.writeInt(commandCount);
+        out.writeInt(stateChanges);
+        out.writeInt(intCount);
+        for (int i = 0; i < intCount; i++) {
+            out.writeInt(ints[i]);
+        }
+        out.writeInt(objectCount);
+        for (int i = 0; i < objectCount; i++) {
+            Object value = objects[i];
+            if (value instanceof Color) {
+                out.writeByte(COLOR_TAG);
+                out.writeInt(((Color) value).getRGB());
+            } else if (value instanceof String) {
+                out.writeByte(TEXT_TAG);
+                out.writeUTF((String) value);
+            } else if (value instanceof Polygon) {
+                Polygon p = (Polygon) value;
+                out.writeByte(POLYGON_TAG);
+                out.writeInt(p.npoints);
+                for (int point = 0; point < p.npoints; point++) {
+                    out.writeInt(p.xpoints[point]);
+                    out.writeInt(p.ypoints[point]);
+                }
+            } else {
+                Image image = (Image) value;
+                out.writeByte(IMAGE_TAG);
+                out.writeInt(Math.max(1, image.getWidth(null)));
+                out.writeInt(Math.max(1, image.getHeight(null)));
+            }
+        }
+    }
+
+    /**
+     * Replaces the recorded frame with one read from a stream, as write wrote it.
+     *
+     * @param in the stream.
+     * @throws IOException if reading fails, or the stream doesn't hold a frame.
+     */
+    public void read(DataInput in) throws IOException {
+        reset(in.readLong());
+        commandCount = in.readInt();
+        stateChanges = in.readInt();
+        intCount = in.readInt();
+        if (intCount < 0 || commandCount < 0) {
+            throw new IOException("corrupt frame");
+        }
+        if (intCount > ints.length) {
+            ints = new int[intCount];
+        }
+        for (int i = 0; i < intCount; i++) {
+            ints[i] = in.readInt();
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int tag = in.readByte();
+            switch (tag) {
+                case COLOR_TAG:
+                    object(new Color(in.readInt(), true));
+                    break;
+                case TEXT_TAG:
+                    object(in.readUTF());
+                    break;
+                case POLYGON_TAG:
+                    int points = in.readInt();
+                    int[] xs = new int[points];
+                    int[] ys = new int[points];
+                    for (int point = 0; point < points; point++) {
+                        xs[point] = in.readInt();
+                        ys[point] = in.readInt();
+                    }
+                    object(new Polygon(xs, ys, points));
+                    break;
+                case IMAGE_TAG:
+                    object(new BufferedImage(in.readInt(), in.readInt(), BufferedImage.TYPE_INT_ARGB));
+                    break;
+                default:
+                    throw new IOException("corrupt frame, object tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * @return number of the recorded frame.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return number of recorded commands.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * @return number of recorded color changes that changed the color (setting the same color again is free).
+     */
+    public int getStateChangeCount() {
+        return stateChanges;
+    }
+
+    /**
+     * Draws the recorded commands on the given surface, in the order they were recorded.
+     *
+     * @param d surface to draw on.
+     */
+    public void replay(DrawSurface d) {
+        int i = 0;
+        int o = 0;
+        while (i < intCount) {
+            switch (ints[i++]) {
+                case SET_COLOR:
+                    d.setColor((Color) objects[o++]);
+                    break;
+                case DRAW_LINE:
+                    d.drawLine(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_OVAL:
+                    d.drawOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case FILL_OVAL:
+                    d.fillOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_RECTANGLE:
+                    d.drawRectangle(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case FILL_RECTANGLE:
+                    d.fillRectangle(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_IMAGE:
+                    d.drawImage(ints[i], ints[i + 1], (Image) objects[o++]);
+                    i += 2;
+                    break;
+                case DRAW_CIRCLE:
+                    d.drawCircle(ints[i], ints[i + 1], ints[i + 2]);
+                    i += 3;
+                    break;
+                case FILL_CIRCLE:
+                    d.fillCircle(ints[i], ints[i + 1], ints[i + 2]);
+                    i += 3;
+                    break;
+                case DRAW_TEXT:
+                    d.drawText(ints[i], ints[i + 1], (String) objects[o++], ints[i + 2]);
+                    i += 3;
+                    break;
+                case DRAW_POLYGON:
+                    d.drawPolygon((Polygon) objects[o++]);
+                    break;
+                case FILL_POLYGON:
+                    d.fillPolygon((Polygon) objects[o++]);
+                    break;
+                default:
+                    throw new IllegalStateException("corrupt command buffer");
+            }
+        }
+    }
+
+    /**
+     * @return width of the surface the frames are drawn on.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the surface the frames are drawn on.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Records a color change.
+     *
+     * @param color the color.
+     */
+    @Override
+    public void setColor(Color color) {
+        command(SET_COLOR, 0);
+        object(color);
+        if (!color.equals(lastColor)) {
+            stateChanges++;
+            lastColor = color;
+        }
+    }
+
+    /**
+     * Records a line.
+     *
+     * @param x1 x of the start.
+     * @param y1 y of the start.
+     * @param x2 x of the end.
+     * @param y2 y of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        command(DRAW_LINE, x1, y1, x2, y2);
+    }
+
+    /**
+     * Records an oval outline.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        command(DRAW_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Records a filled oval.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        command(FILL_OVAL, x, y, width, height);
+    }
+
+    /**
+     * Records a rectangle outline.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        command(DRAW_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Records a filled rectangle.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        command(FILL_RECTANGLE, x, y, width, height);
+    }
+
+    /**
+     * Records an image, the image itself is not copied.
+     *
+     * @param x     left x.
+     * @param y     top y.
+     * @param image the image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        command(DRAW_IMAGE, 2);
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        object(image);
+    }
+
+    /**
+     * Records a circle outline.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        command(DRAW_CIRCLE, 3);
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = radius;
+    }
+
+    /**
+     * Records a filled circle.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        command(FILL_CIRCLE, 3);
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = radius;
+    }
+
+    /**
+     * Records a text.
+     *
+     * @param x        left x.
+     * @param y        baseline y.
+     * @param s        the text.
+     * @param fontSize font size.
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        command(DRAW_TEXT, 3);
+        ints[intCount++] = x;
+        ints[intCount++] = y;
+        ints[intCount++] = fontSize;
+        object(s);
+    }
+
+    /**
+     * Records a polygon outline, with a copy of the polygon.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        command(DRAW_POLYGON, 0);
+        object(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+
+    /**
+     * Records a filled polygon, with a copy of the polygon.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        command(FILL_POLYGON, 0);
+        object(new Polygon(p.xpoints, p.ypoints, p.npoints));
+    }
+
+    // records an opcode, making room for the given number of int arguments after it.
+    private void command(int opcode, int arguments) {
+        if (intCount + 1 + arguments > ints.length) {
+            ints = Arrays.copyOf(ints, Math.max(2 * ints.length, intCount + 1 + arguments));
+        }
+        ints[intCount++] = opcode;
+        commandCount++;
+    }
+
+    private void command(int opcode, int a, int b, int c, int e) {
+        command(opcode, 4);
+        ints[intCount++] = a;
+        ints[intCount++] = b;
+        ints[intCount++] = c;
+        ints[intCount++] = e;
+    }
+
+    private void object(Object value) {
+        if (objectCount == objects.length) {
+            objects = Arrays.copyOf(objects, 2 * objectCount);
+        }
+        objects[objectCount++] = value;
+    }
+}
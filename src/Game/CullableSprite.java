@@ -0,0 +1,24 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+/**
+ * A sprite made of many parts (a store of blocks), that can draw only the parts inside a
+ * box of the world, so a camera over a large world draws only what it sees.
+ */
+public interface CullableSprite extends Sprite {
+
+    //Methods
+
+    /**
+     * Draws the parts of the sprite that are (partly) inside the given box of the world.
+     *
+     * @param d       drawSurface to draw on.
+     * @param quality level of detail to draw at.
+     * @param minX    left x of the box.
+     * @param minY    top y of the box.
+     * @param maxX    right x of the box.
+     * @param maxY    bottom y of the box.
+     */
+    void drawOn(DrawSurface d, RenderQuality quality, double minX, double minY, double maxX, double maxY);
+}
@@ -0,0 +1,438 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draw surface decorator that records every drawing call of a frame into a Game.CommandBuffer while passing it on
+ * to the surface it decorates, so drawing can be measured, and replayed later without a window.
+ * the recorder counts the commands of every sprite type (Game.SpriteCollection tells it which sprite draws, see
+ * SpriteCollection.setRecorder), and can write the recorded frames to a file, one after the other, for
+ * Benchmarks.ReplayBenchmark.
+ */
+public class DrawRecorder implements DrawSurface {
+    // constants
+
+    /**
+     * Name of the system property with the file the game records its frames to.
+     */
+    public static final String PROPERTY = "game.recordFrames";
+
+    private static final int MAGIC = 0x47524543;
+
+    // fields
+    private final CommandBuffer buffer;
+    private final Map<String, long[]> typeCounts = new LinkedHashMap<>();
+    private DataOutputStream out = null;
+    private DrawSurface target = null;
+    private long[] currentCounts = null;
+    private long frames = 0;
+    private long commands = 0;
+    private long stateChanges = 0;
+
+    // constructor
+
+    /**
+     * Creates a recorder for frames of the given size.
+     *
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     */
+    public DrawRecorder(int width, int height) {
+        this.buffer = new CommandBuffer(width, height);
+    }
+
+    // Methods
+
+    /**
+     * Creates a recorder that writes to the file of the game.recordFrames system property.
+     *
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     * @return the recorder, null if the property is not set or the file can't be created.
+     */
+    public static DrawRecorder fromSystemProperty(int width, int height) {
+        String path = System.getProperty(PROPERTY);
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        DrawRecorder recorder = new DrawRecorder(width, height);
+        try {
+            recorder.open(new File(path));
+        } catch (IOException e) {
+            System.out.println("Can't record frames to " + path + ": " + e.getMessage());
+            return null;
+        }
+        return recorder;
+    }
+
+    /**
+     * Starts writing the recorded frames to a file, replacing it.
+     *
+     * @param file the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void open(File file) throws IOException {
+        close();
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(buffer.getWidth());
+        out.writeInt(buffer.getHeight());
+    }
+
+    /**
+     * Stops writing frames, and closes the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void close() throws IOException {
+        if (out != null) {
+            DataOutputStream stream = out;
+            out = null;
+            stream.close();
+        }
+    }
+
+    /**
+     * Reads the frames of a file written by a recorder.
+     *
+     * @param file the file.
+     * @return the frames, in the order they were recorded.
+     * @throws IOException if the file can't be read or wasn't written by a recorder.
+     */
+    public static List<CommandBuffer> read(File file) throws IOException {
+        List<CommandBuffer> frames = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a frame recording");
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            while (true) {
+                CommandBuffer frame = new CommandBuffer(width, height);
+                try {
+                    frame.read(in);
+                } catch (EOFException e) {
+                    return frames;
+                }
+                frames.add(frame);
+            }
+        }
+    }
+
+    /**
+     * Starts recording a frame that is also drawn on the given surface.
+     *
+     * @param surface the surface to pass the drawing on to, null to only record.
+     * @return this recorder, to draw the frame on.
+     */
+    public DrawRecorder beginFrame(DrawSurface surface) {
+        target = surface;
+        currentCounts = null;
+        buffer.reset(frames + 1);
+        return this;
+    }
+
+    /**
+     * Ends the frame: adds it to the totals, and writes it to the file if one is open.
+     * a frame that can't be written closes the file, and the recorder goes on counting.
+     */
+    public void endFrame() {
+        frames++;
+        commands += buffer.getCommandCount();
+        stateChanges += buffer.getStateChangeCount();
+        target = null;
+        if (out == null) {
+            return;
+        }
+        try {
+            buffer.write(out);
+        } catch (IOException e) {
+            System.out.println("Stopped recording frames: " + e.getMessage());
+            try {
+                close();
+            } catch (IOException ignored) {
+                out = null;
+            }
+        }
+    }
+
+    /**
+     * Counts the next commands for the type of the given sprite, until another sprite begins.
+     *
+     * @param s the sprite that draws next.
+     */
+    public void beginSprite(Sprite s) {
+        beginType(s.getClass().getSimpleName().isEmpty() ? s.getClass().getName() : s.getClass().getSimpleName());
+    }
+
+    /**
+     * Counts the next commands under the given name, until another sprite or name begins. used for drawing
+     * that belongs to no single sprite, like the rectangles of merged blocks (see Game.BlockMerger).
+     *
+     * @param type name to count the commands under.
+     */
+    public void beginType(String type) {
+        currentCounts = typeCounts.computeIfAbsent(type, k -> new long[1]);
+    }
+
+    /**
+     * @return the frame being recorded, or the last one recorded.
+     */
+    public CommandBuffer getFrame() {
+        return buffer;
+    }
+
+    /**
+     * @return number of frames recorded.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return a summary of the recorded frames: commands and state changes per frame, and commands per frame of
+     * every sprite type.
+     */
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        double perFrame = frames == 0 ? 0 : 1.0 / frames;
+        stats.append(String.format("frames %d, commands %.1f per frame, state changes %.1f per frame", frames,
+                commands * perFrame, stateChanges * perFrame));
+        for (Map.Entry<String, long[]> entry : typeCounts.entrySet()) {
+            stats.append(String.format(", %s %.1f", entry.getKey(), entry.getValue()[0] * perFrame));
+        }
+        return stats.toString();
+    }
+
+    /**
+     * @return width of the frames.
+     */
+    @Override
+    public int getWidth() {
+        return buffer.getWidth();
+    }
+
+    /**
+     * @return height of the frames.
+     */
+    @Override
+    public int getHeight() {
+        return buffer.getHeight();
+    }
+
+    /**
+     * Records and passes on a color change.
+     *
+     * @param color the color.
+     */
+    @Override
+    public void setColor(Color color) {
+        buffer.setColor(color);
+        count();
+        if (target != null) {
+            target.setColor(color);
+        }
+    }
+
+    /**
+     * Records and passes on a line.
+     *
+     * @param x1 x of the start.
+     * @param y1 y of the start.
+     * @param x2 x of the end.
+     * @param y2 y of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        buffer.drawLine(x1, y1, x2, y2);
+        count();
+        if (target != null) {
+            target.drawLine(x1, y1, x2, y2);
+        }
+    }
+
+    /**
+     * Records and passes on an oval outline.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        buffer.drawOval(x, y, width, height);
+        count();
+        if (target != null) {
+            target.drawOval(x, y, width, height);
+        }
+    }
+
+    /**
+     * Records and passes on a filled oval.
+     *
+     * @param x      left x of the bounds.
+     * @param y      top y of the bounds.
+     * @param width  width of the bounds.
+     * @param height height of the bounds.
+     */
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        buffer.fillOval(x, y, width, height);
+        count();
+        if (target != null) {
+            target.fillOval(x, y, width, height);
+        }
+    }
+
+    /**
+     * Records and passes on a rectangle outline.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        buffer.drawRectangle(x, y, width, height);
+        count();
+        if (target != null) {
+            target.drawRectangle(x, y, width, height);
+        }
+    }
+
+    /**
+     * Records and passes on a filled rectangle.
+     *
+     * @param x      left x.
+     * @param y      top y.
+     * @param width  width.
+     * @param height height.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        buffer.fillRectangle(x, y, width, height);
+        count();
+        if (target != null) {
+            target.fillRectangle(x, y, width, height);
+        }
+    }
+
+    /**
+     * Records and passes on an image.
+     *
+     * @param x     left x.
+     * @param y     top y.
+     * @param image the image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        buffer.drawImage(x, y, image);
+        count();
+        if (target != null) {
+            target.drawImage(x, y, image);
+        }
+    }
+
+    /**
+     * Records and passes on a circle outline.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        buffer.drawCircle(x, y, radius);
+        count();
+        if (target != null) {
+            target.drawCircle(x, y, radius);
+        }
+    }
+
+    /**
+     * Records and passes on a filled circle.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        buffer.fillCircle(x, y, radius);
+        count();
+        if (target != null) {
+            target.fillCircle(x, y, radius);
+        }
+    }
+
+    /**
+     * Records and passes on a text.
+     *
+     * @param x        left x.
+     * @param y        baseline y.
+     * @param s        the text.
+     * @param fontSize font size.
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        buffer.drawText(x, y, s, fontSize);
+        count();
+        if (target != null) {
+            target.drawText(x, y, s, fontSize);
+        }
+    }
+
+    /**
+     * Records and passes on a polygon outline.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        buffer.drawPolygon(p);
+        count();
+        if (target != null) {
+            target.drawPolygon(p);
+        }
+    }
+
+    /**
+     * Records and passes on a filled polygon.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        buffer.fillPolygon(p);
+        count();
+        if (target != null) {
+            target.fillPolygon(p);
+        }
+    }
+
+    // counts a command for the type of the sprite that draws it.
+    private void count() {
+        if (currentCounts != null) {
+            currentCounts[0]++;
+        }
+    }
+}
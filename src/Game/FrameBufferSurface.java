@@ -0,0 +1,503 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Draw surface that draws into an int array of ARGB pixels in memory, without a GUI or a window, so frames can be
+ * drawn headless: in benchmarks, in CI, and when replaying a game offline.
+ * rectangles, lines, ovals, circles and text are rasterised directly into the pixel array (text with a built-in
+ * 5x7 font, scaled to the font size). the array is the buffer of a BufferedImage, so frames can be written as
+ * PNG files, and images and polygons are drawn through the image's Graphics2D. every drawing is clipped to a clip
+ * rectangle, the whole surface by default.
+ * views of a surface share its pixels but have their own color and clip, so threads can draw on separate parts
+ * of one frame at the same time (see Game.TiledRasterizer).
+ */
+public class FrameBufferSurface implements DrawSurface {
+    // constants
+    private static final int GLYPH_WIDTH = 5;
+    private static final int GLYPH_HEIGHT = 7;
+    private static final String GLYPH_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ .,:!?-+/()'%=_";
+    // every glyph is 7 rows of 5 bits, the top row first and the left pixel in the high bit.
+    private static final String[] GLYPHS = {
+        "0E11131519110E", "040C040404040E", "0E11010204081F", "1F02040201110E", "02060A121F0202",
+        "1F101E0101110E", "0608101E11110E", "1F010204080808", "0E11110E11110E", "0E11110F01020C",
+        "0E1111111F1111", "1E11111E11111E", "0E11101010110E", "1C12111111121C", "1F10101E10101F",
+        "1F10101E101010", "0E11101711110F", "1111111F111111", "0E04040404040E", "0702020202120C",
+        "11121418141211", "1010101010101F", "111B1515111111", "11111915131111", "0E11111111110E",
+        "1E11111E101010", "0E11111115120D", "1E11111E141211", "0F10100E01011E", "1F040404040404",
+        "1111111111110E", "11111111110A04", "1111111515150A", "11110A040A1111", "1111110A040404",
+        "1F01020408101F", "00000000000000", "00000000000C0C", "000000000C0408", "000C0C000C0C00",
+        "04040404040004", "0E110102040004", "0000001F000000", "0004041F040400", "00010204081000",
+        "02040808080402", "08040202020408", "0C040800000000", "18190204081303", "00001F001F0000",
+        "0000000000001F",
+    };
+    private static final byte[][] FONT = buildFont();
+
+    // fields
+    private final int width;
+    private final int height;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private Graphics2D graphics = null;
+    private int color = 0xFF000000;
+    private Color awtColor = Color.BLACK;
+    private int clipMinX;
+    private int clipMinY;
+    private int clipMaxX;
+    private int clipMaxY;
+
+    // constructor
+
+    /**
+     * Creates a surface of the given size, cleared to transparent black.
+     *
+     * @param width  width in pixels.
+     * @param height height in pixels.
+     */
+    public FrameBufferSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        resetClip();
+    }
+
+    // a view of a surface, sharing its pixels.
+    private FrameBufferSurface(FrameBufferSurface shared) {
+        this.width = shared.width;
+        this.height = shared.height;
+        this.image = shared.image;
+        this.pixels = shared.pixels;
+        resetClip();
+    }
+
+    // Methods
+
+    /**
+     * Creates a view of the surface: a surface that draws on the same pixels, with its own color and clip.
+     *
+     * @return the view.
+     */
+    public FrameBufferSurface view() {
+        return new FrameBufferSurface(this);
+    }
+
+    /**
+     * @param s        a text.
+     * @param fontSize font size.
+     * @return width in pixels of the text as drawText draws it.
+     */
+    public static int textWidth(String s, int fontSize) {
+        return s.length() * (GLYPH_WIDTH + 1) * textScale(fontSize);
+    }
+
+    /**
+     * @param fontSize font size.
+     * @return height in pixels above the baseline of texts as drawText draws them.
+     */
+    public static int textHeight(int fontSize) {
+        return GLYPH_HEIGHT * textScale(fontSize);
+    }
+
+    /**
+     * Returns the pixels of the surface, row after row, as ARGB ints. writing them changes the surface.
+     *
+     * @return the pixel array.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * @return the image the surface draws into, sharing its pixels.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Fills the whole surface (ignoring the clip) with a color.
+     *
+     * @param argb the color, as an ARGB int.
+     */
+    public void clear(int argb) {
+        Arrays.fill(pixels, argb);
+    }
+
+    /**
+     * Limits the drawing to a rectangle of the surface, intersected with the surface.
+     *
+     * @param x          left x of the rectangle.
+     * @param y          top y of the rectangle.
+     * @param clipWidth  width of the rectangle.
+     * @param clipHeight height of the rectangle.
+     */
+    public void setClip(int x, int y, int clipWidth, int clipHeight) {
+        clipMinX = Math.max(0, x);
+        clipMinY = Math.max(0, y);
+        clipMaxX = Math.min(width, x + clipWidth);
+        clipMaxY = Math.min(height, y + clipHeight);
+        if (graphics != null) {
+            graphics.setClip(clipMinX, clipMinY, Math.max(0, clipMaxX - clipMinX), Math.max(0, clipMaxY - clipMinY));
+        }
+    }
+
+    /**
+     * Lets the drawing cover the whole surface again.
+     */
+    public void resetClip() {
+        setClip(0, 0, width, height);
+    }
+
+    /**
+     * Writes the surface as a PNG file.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file can't be written.
+     */
+    public void writePng(File file) throws IOException {
+        if (!ImageIO.write(image, "png", file)) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+    /**
+     * Releases the Graphics2D used for images and polygons, if one was made.
+     */
+    public void dispose() {
+        if (graphics != null) {
+            graphics.dispose();
+            graphics = null;
+        }
+    }
+
+    /**
+     * @return width of the surface.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the surface.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the color of the next drawings, colors that aren't opaque are blended over the pixels.
+     *
+     * @param c the color.
+     */
+    @Override
+    public void setColor(Color c) {
+        this.awtColor = c;
+        this.color = c.getRGB();
+        if (graphics != null) {
+            graphics.setColor(c);
+        }
+    }
+
+    /**
+     * Draws a line, with the pixels of Bresenham's algorithm.
+     *
+     * @param x1 x of the start.
+     * @param y1 y of the start.
+     * @param x2 x of the end.
+     * @param y2 y of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        int dx = Math.abs(x2 - x1);
+        int dy = -Math.abs(y2 - y1);
+        int stepX = x1 < x2 ? 1 : -1;
+        int stepY = y1 < y2 ? 1 : -1;
+        int error = dx + dy;
+        int x = x1;
+        int y = y1;
+        while (true) {
+            plot(x, y);
+            if (x == x2 && y == y2) {
+                return;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+    }
+
+    /**
+     * Draws the outline of an oval: the pixels of the filled oval that touch a pixel outside it.
+     *
+     * @param x          left x of the bounds.
+     * @param y          top y of the bounds.
+     * @param ovalWidth  width of the bounds.
+     * @param ovalHeight height of the bounds.
+     */
+    @Override
+    public void drawOval(int x, int y, int ovalWidth, int ovalHeight) {
+        oval(x, y, ovalWidth, ovalHeight, true);
+    }
+
+    /**
+     * Fills an oval: the pixels whose centers are inside it.
+     *
+     * @param x          left x of the bounds.
+     * @param y          top y of the bounds.
+     * @param ovalWidth  width of the bounds.
+     * @param ovalHeight height of the bounds.
+     */
+    @Override
+    public void fillOval(int x, int y, int ovalWidth, int ovalHeight) {
+        oval(x, y, ovalWidth, ovalHeight, false);
+    }
+
+    /**
+     * Draws the outline of a rectangle, covering columns x to x + width and rows y to y + height (as AWT does).
+     *
+     * @param x               left x.
+     * @param y               top y.
+     * @param rectangleWidth  width.
+     * @param rectangleHeight height.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int rectangleWidth, int rectangleHeight) {
+        if (rectangleWidth < 0 || rectangleHeight < 0) {
+            return;
+        }
+        fillRectangle(x, y, rectangleWidth, 1);
+        fillRectangle(x, y + rectangleHeight, rectangleWidth + 1, 1);
+        fillRectangle(x, y + 1, 1, rectangleHeight - 1);
+        fillRectangle(x + rectangleWidth, y, 1, rectangleHeight);
+    }
+
+    /**
+     * Fills a rectangle, covering columns x to x + width - 1 and rows y to y + height - 1.
+     *
+     * @param x               left x.
+     * @param y               top y.
+     * @param rectangleWidth  width.
+     * @param rectangleHeight height.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int rectangleWidth, int rectangleHeight) {
+        int fromX = Math.max(clipMinX, x);
+        int fromY = Math.max(clipMinY, y);
+        int toX = (int) Math.min(clipMaxX, (long) x + rectangleWidth);
+        int toY = (int) Math.min(clipMaxY, (long) y + rectangleHeight);
+        if (fromX >= toX) {
+            return;
+        }
+        for (int row = fromY; row < toY; row++) {
+            span(row * width + fromX, row * width + toX);
+        }
+    }
+
+    /**
+     * Draws an image through the Graphics2D of the surface.
+     *
+     * @param x   left x.
+     * @param y   top y.
+     * @param img the image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        graphics().drawImage(img, x, y, null);
+    }
+
+    /**
+     * Draws the outline of a circle.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        oval(x - radius, y - radius, 2 * radius, 2 * radius, true);
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        oval(x - radius, y - radius, 2 * radius, 2 * radius, false);
+    }
+
+    /**
+     * Draws a text with the built-in 5x7 font, scaled so capitals are about as tall as in a font of the given
+     * size. lower case letters are drawn as capitals, and characters the font lacks as '?'.
+     *
+     * @param x        left x.
+     * @param y        baseline y.
+     * @param s        the text.
+     * @param fontSize font size.
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        int scale = textScale(fontSize);
+        int top = y - GLYPH_HEIGHT * scale;
+        int left = x;
+        for (int i = 0; i < s.length(); i++) {
+            byte[] glyph = glyph(s.charAt(i));
+            for (int row = 0; row < GLYPH_HEIGHT; row++) {
+                for (int column = 0; column < GLYPH_WIDTH; column++) {
+                    if ((glyph[row] & (1 << (GLYPH_WIDTH - 1 - column))) != 0) {
+                        fillRectangle(left + column * scale, top + row * scale, scale, scale);
+                    }
+                }
+            }
+            left += (GLYPH_WIDTH + 1) * scale;
+        }
+    }
+
+    /**
+     * Draws the outline of a polygon through the Graphics2D of the surface.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        graphics().drawPolygon(p);
+    }
+
+    /**
+     * Fills a polygon through the Graphics2D of the surface.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        graphics().fillPolygon(p);
+    }
+
+    // rasterises an oval row by row: a pixel is inside if its center is, an outline pixel is inside but is not
+    // covered by both the row above and the row below.
+    private void oval(int x, int y, int ovalWidth, int ovalHeight, boolean outline) {
+        if (ovalWidth <= 0 || ovalHeight <= 0) {
+            return;
+        }
+        double radiusX = ovalWidth / 2.0;
+        double radiusY = ovalHeight / 2.0;
+        double centerX = x + radiusX;
+        double centerY = y + radiusY;
+        for (int row = Math.max(y, clipMinY); row < Math.min(y + ovalHeight, clipMaxY); row++) {
+            long span = ovalSpan(row, centerX, centerY, radiusX, radiusY);
+            int from = (int) (span >> 32);
+            int to = (int) span;
+            if (!outline) {
+                fillRectangle(from, row, to - from, 1);
+                continue;
+            }
+            long above = ovalSpan(row - 1, centerX, centerY, radiusX, radiusY);
+            long below = ovalSpan(row + 1, centerX, centerY, radiusX, radiusY);
+            int innerFrom = Math.max((int) (above >> 32), (int) (below >> 32));
+            int innerTo = Math.min((int) above, (int) below);
+            if (innerFrom >= innerTo) {
+                fillRectangle(from, row, to - from, 1);
+            } else {
+                fillRectangle(from, row, Math.max(1, innerFrom - from), 1);
+                int right = Math.min(to - 1, innerTo);
+                fillRectangle(right, row, to - right, 1);
+            }
+        }
+    }
+
+    // the columns of a row whose pixel centers are inside the oval, first (high half) to last + 1 (low half).
+    private static long ovalSpan(int row, double centerX, double centerY, double radiusX, double radiusY) {
+        double dy = (row + 0.5 - centerY) / radiusY;
+        double rest = 1 - dy * dy;
+        if (rest < 0) {
+            return 0;
+        }
+        double halfWidth = radiusX * Math.sqrt(rest);
+        int from = (int) Math.ceil(centerX - halfWidth - 0.5);
+        int to = (int) Math.floor(centerX + halfWidth - 0.5) + 1;
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private void plot(int x, int y) {
+        if (x >= clipMinX && x < clipMaxX && y >= clipMinY && y < clipMaxY) {
+            span(y * width + x, y * width + x + 1);
+        }
+    }
+
+    // writes the color over a run of pixels of one row, blending it if it is not opaque.
+    private void span(int from, int to) {
+        int alpha = color >>> 24;
+        if (alpha == 0xFF) {
+            Arrays.fill(pixels, from, to, color);
+            return;
+        }
+        if (alpha == 0) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            pixels[i] = blend(color, pixels[i], alpha);
+        }
+    }
+
+    // source-over blending of a color over a pixel.
+    private static int blend(int source, int destination, int alpha) {
+        int inverse = 0xFF - alpha;
+        int resultAlpha = alpha + ((destination >>> 24) * inverse) / 0xFF;
+        int red = (((source >> 16) & 0xFF) * alpha + ((destination >> 16) & 0xFF) * inverse) / 0xFF;
+        int green = (((source >> 8) & 0xFF) * alpha + ((destination >> 8) & 0xFF) * inverse) / 0xFF;
+        int blue = ((source & 0xFF) * alpha + (destination & 0xFF) * inverse) / 0xFF;
+        return (resultAlpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    private Graphics2D graphics() {
+        if (graphics == null) {
+            graphics = image.createGraphics();
+            graphics.setColor(awtColor);
+            graphics.setClip(clipMinX, clipMinY, Math.max(0, clipMaxX - clipMinX), Math.max(0, clipMaxY - clipMinY));
+        }
+        return graphics;
+    }
+
+    // size in pixels of the dots of the font.
+    private static int textScale(int fontSize) {
+        return Math.max(1, Math.round(fontSize / 10f));
+    }
+
+    private static byte[] glyph(char c) {
+        int index = GLYPH_CHARS.indexOf(Character.toUpperCase(c));
+        return FONT[index >= 0 ? index : GLYPH_CHARS.indexOf('?')];
+    }
+
+    private static byte[][] buildFont() {
+        byte[][] font = new byte[GLYPHS.length][GLYPH_HEIGHT];
+        for (int i = 0; i < GLYPHS.length; i++) {
+            for (int row = 0; row < GLYPH_HEIGHT; row++) {
+                font[i][row] = (byte) Integer.parseInt(GLYPHS[i].substring(2 * row, 2 * row + 2), 16);
+            }
+        }
+        return font;
+    }
+}
@@ -0,0 +1,219 @@
+package Game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures the frames of the game to disk, as a sequence of PNG files or as one raw file, without slowing the game
+ * loop down.
+ * the game loop only copies the recorded commands of a frame (see Game.DrawRecorder) into a buffer taken from a
+ * pool and offers it to a bounded queue; an encoder thread takes the frames from the queue, rasterises them on a
+ * Game.FrameBufferSurface, writes them and returns the buffers to the pool. when the encoder falls behind the
+ * pool runs dry and frames are dropped (and counted) instead of making the game loop wait.
+ * the raw file is a header of three ints (magic, width, height), then every frame as its number (a long) and its
+ * ARGB pixels, row after row, as big endian ints.
+ */
+public class FrameCapture implements Runnable {
+    // constants
+
+    /**
+     * Name of the system property with where the game captures its frames to: a file ending with ".raw" for a raw
+     * file, any other path for a directory of PNG files.
+     */
+    public static final String PROPERTY = "game.capture";
+
+    /**
+     * Number of frames that can wait for the encoder.
+     */
+    public static final int QUEUE_CAPACITY = 8;
+
+    private static final int MAGIC = 0x47524157;
+    private static final long IDLE_MILLIS = 10;
+    private static final int BACKGROUND = 0xFFFFFFFF;
+
+    // fields
+    private final int width;
+    private final int height;
+    private final File target;
+    private final boolean raw;
+    private final BlockingQueue<CommandBuffer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<CommandBuffer> pool = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread encoder;
+    private volatile boolean running = false;
+    private volatile boolean failed = false;
+
+    // constructor
+
+    /**
+     * Creates a capture of frames of the given size, start it with start.
+     *
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     * @param target a file ending with ".raw" for a raw file, any other path for a directory of PNG files.
+     */
+    public FrameCapture(int width, int height, File target) {
+        this.width = width;
+        this.height = height;
+        this.target = target;
+        this.raw = target.getName().endsWith(".raw");
+        // one buffer more than the queue holds, for the frame the encoder works on.
+        for (int i = 0; i < QUEUE_CAPACITY + 1; i++) {
+            pool.add(new CommandBuffer(width, height));
+        }
+        this.encoder = new Thread(this, "capture");
+        this.encoder.setDaemon(true);
+    }
+
+    // Methods
+
+    /**
+     * Creates and starts a capture to the path of the game.capture system property.
+     *
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     * @return the capture, null if the property is not set.
+     */
+    public static FrameCapture fromSystemProperty(int width, int height) {
+        String path = System.getProperty(PROPERTY);
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        FrameCapture capture = new FrameCapture(width, height, new File(path));
+        capture.start();
+        return capture;
+    }
+
+    /**
+     * Starts the encoder thread.
+     */
+    public void start() {
+        running = true;
+        encoder.start();
+    }
+
+    /**
+     * Stops the encoder thread after it wrote the frames that are waiting, and closes the output.
+     */
+    public void stop() {
+        running = false;
+        try {
+            encoder.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a recorded frame to the encoder, called by the game loop. the frame is copied, so the caller can reuse
+     * it at once. never waits: if no buffer is free the frame is dropped.
+     *
+     * @param frame the recorded commands of the frame.
+     * @return true if the frame will be written, false if it was dropped.
+     */
+    public boolean submit(CommandBuffer frame) {
+        CommandBuffer copy = failed ? null : pool.poll();
+        if (copy == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        copy.reset(frame.getFrame());
+        frame.replay(copy);
+        // the pool never holds more buffers than the queue has room for, but don't rely on it.
+        if (!queue.offer(copy)) {
+            pool.offer(copy);
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of frames written.
+     */
+    public long getWrittenFrames() {
+        return written.get();
+    }
+
+    /**
+     * @return number of frames dropped because the encoder was behind (or failed).
+     */
+    public long getDroppedFrames() {
+        return dropped.get();
+    }
+
+    /**
+     * @return a one line summary of the capture.
+     */
+    public String getStats() {
+        return String.format("%d frames written to %s, %d dropped", written.get(), target, dropped.get());
+    }
+
+    /**
+     * Writes the frames of the queue until stop is called and the queue is empty.
+     */
+    @Override
+    public void run() {
+        FrameBufferSurface surface = new FrameBufferSurface(width, height);
+        DataOutputStream out = null;
+        try {
+            if (raw) {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)));
+                out.writeInt(MAGIC);
+                out.writeInt(width);
+                out.writeInt(height);
+            } else if (!target.isDirectory() && !target.mkdirs()) {
+                throw new IOException("can't create the directory " + target);
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(width * height * Integer.BYTES);
+            while (running || !queue.isEmpty()) {
+                CommandBuffer frame = queue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                surface.clear(BACKGROUND);
+                frame.replay(surface);
+                long number = frame.getFrame();
+                pool.offer(frame);
+                if (raw) {
+                    bytes.clear();
+                    bytes.asIntBuffer().put(surface.getPixels());
+                    out.writeLong(number);
+                    out.write(bytes.array());
+                } else {
+                    surface.writePng(new File(target, String.format("frame-%06d.png", number)));
+                }
+                written.incrementAndGet();
+            }
+        } catch (IOException e) {
+            System.out.println("Stopped capturing frames: " + e.getMessage());
+            fail();
+        } catch (InterruptedException e) {
+            fail();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.out.println("Can't finish the capture: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // stops taking frames: the waiting ones and the next ones are counted as dropped.
+    private void fail() {
+        failed = true;
+        dropped.addAndGet(queue.size());
+        queue.clear();
+    }
+}
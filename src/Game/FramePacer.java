@@ -0,0 +1,181 @@
+package Game;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the game loop to a frame rate, with absolute deadlines in nanoseconds.
+ * every frame has a deadline one period after the previous one, so the time a frame took never shifts the
+ * following frames, and the rate holds exactly (60 frames per second is 16.67 ms per frame, not 16 ms).
+ * waiting sleeps while the deadline is far, then spins for the last SPIN_NANOS, where sleeping would
+ * overshoot, so frames are delivered within a fraction of a millisecond without burning a whole core.
+ * the pacer keeps statistics of how late the frames were delivered (jitter).
+ */
+public class FramePacer {
+    // constants
+
+    /**
+     * Name of the system property with the target frame rate (60 if it is not set).
+     */
+    public static final String FPS_PROPERTY = "game.fps";
+
+    /**
+     * Name of the system property that prints the jitter statistics when the game ends ("true").
+     */
+    public static final String STATS_PROPERTY = "game.pacerStats";
+
+    /**
+     * Default target frame rate.
+     */
+    public static final double DEFAULT_FPS = 60;
+
+    private static final long SPIN_NANOS = 2_000_000L;
+
+    // fields
+    private final long periodNanos;
+    private long deadline = 0;
+    private long frames = 0;
+    private long missedFrames = 0;
+    private double meanLateness = 0;
+    private double latenessSquares = 0;
+    private long maxLateness = 0;
+
+    // constructor
+
+    /**
+     * Creates a pacer for the given frame rate.
+     *
+     * @param framesPerSecond target frame rate, positive.
+     */
+    public FramePacer(double framesPerSecond) {
+        if (!(framesPerSecond > 0)) {
+            throw new IllegalArgumentException("frame rate must be positive: " + framesPerSecond);
+        }
+        this.periodNanos = Math.round(1_000_000_000.0 / framesPerSecond);
+    }
+
+    // Methods
+
+    /**
+     * Creates a pacer for the frame rate of the game.fps system property.
+     *
+     * @return the pacer.
+     */
+    public static FramePacer fromSystemProperty() {
+        String value = System.getProperty(FPS_PROPERTY);
+        double framesPerSecond = DEFAULT_FPS;
+        if (value != null) {
+            try {
+                framesPerSecond = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                framesPerSecond = DEFAULT_FPS;
+            }
+        }
+        return new FramePacer(framesPerSecond > 0 ? framesPerSecond : DEFAULT_FPS);
+    }
+
+    /**
+     * Checks the game.pacerStats system property.
+     *
+     * @return true if the jitter statistics should be printed when the game ends.
+     */
+    public static boolean isStatsEnabled() {
+        return Boolean.parseBoolean(System.getProperty(STATS_PROPERTY));
+    }
+
+    /**
+     * Starts pacing, the first frame is due one period from now.
+     */
+    public void start() {
+        deadline = System.nanoTime() + periodNanos;
+    }
+
+    /**
+     * Waits until the deadline of the current frame, and moves to the next frame.
+     * a frame that is already more than a whole period late is counted as missed, and the deadlines restart
+     * from now instead of rushing through the frames that were missed.
+     */
+    public void waitForNextFrame() {
+        if (deadline == 0) {
+            start();
+        }
+        long now = System.nanoTime();
+        // sleep while the deadline is far.
+        while (deadline - now > SPIN_NANOS) {
+            LockSupport.parkNanos(deadline - now - SPIN_NANOS);
+            now = System.nanoTime();
+        }
+        // spin for the last stretch.
+        while (deadline - now > 0) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+
+        record(now - deadline);
+        if (now - deadline > periodNanos) {
+            missedFrames++;
+            deadline = now + periodNanos;
+        } else {
+            deadline += periodNanos;
+        }
+    }
+
+    /**
+     * @return length of a frame in nanoseconds.
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * @return number of frames paced.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return number of frames that were more than a whole period late.
+     */
+    public long getMissedFrames() {
+        return missedFrames;
+    }
+
+    /**
+     * @return mean time frames were delivered after their deadline, in nanoseconds.
+     */
+    public double getMeanLatenessNanos() {
+        return meanLateness;
+    }
+
+    /**
+     * @return standard deviation of the time frames were delivered after their deadline, in nanoseconds.
+     */
+    public double getJitterNanos() {
+        return frames > 1 ? Math.sqrt(latenessSquares / (frames - 1)) : 0;
+    }
+
+    /**
+     * @return longest time a frame was delivered after its deadline, in nanoseconds.
+     */
+    public long getMaxLatenessNanos() {
+        return maxLateness;
+    }
+
+    /**
+     * @return a one line summary of the statistics, in milliseconds.
+     */
+    public String getStats() {
+        return String.format("frames %d, period %.3f ms, late mean %.3f ms, jitter %.3f ms, max %.3f ms, missed %d",
+                frames, periodNanos / 1e6, meanLateness / 1e6, getJitterNanos() / 1e6, maxLateness / 1e6,
+                missedFrames);
+    }
+
+    // adds the lateness of a frame to the running mean and variance (Welford).
+    private void record(long lateness) {
+        frames++;
+        double delta = lateness - meanLateness;
+        meanLateness += delta / frames;
+        latenessSquares += delta * (lateness - meanLateness);
+        maxLateness = Math.max(maxLateness, lateness);
+    }
+}
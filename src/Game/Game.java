@@ -4,9 +4,9 @@ import Geometry.Ball;
 import Geometry.Velocity;
 import biuoop.DrawSurface;
 import biuoop.GUI;
-import biuoop.Sleeper;
 
 import java.awt.Color;
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -17,25 +17,46 @@ public class Game {
     // fields
     private final SpriteCollection sprites;
     private final GameEnvironment environment;
+    private CollisionEngineType collisionEngineType;
     private GUI gui;
-    private Sleeper sleeper;
     private int gameWidth = 800;
     private int gameHeight = 600;
+    // size of the world, the world is the size of the window until a larger one is set.
+    private int worldWidth = 0;
+    private int worldHeight = 0;
     private final double borderThickness = 20;
     private final Counter remainingBlocks;
     private final Counter remainingBalls;
     private final Counter scoreCounter;
     private List<HitListener> blockHitListeners;
     private final List<Ball> gameBalls;
+    private Ball[] ballBuffer = new Ball[0];
+    private double[] ballTrajectories = new double[0];
+    private double[] ballRadii = new double[0];
+    private CollisionResult[] ballCollisions = new CollisionResult[0];
+    private BallCollisionSystem ballCollisionSystem = null;
+    private final TimerWheel timers = new TimerWheel();
+    private Camera camera = null;
 
     //constructors
 
     /**
-     * creates game object.
+     * creates game object, with the collision engine selected by the game.collisionEngine system property
+     * (auto if it is not set).
      */
     public Game() {
+        this(CollisionEngineType.fromSystemProperty());
+    }
+
+    /**
+     * creates game object with the given collision engine.
+     *
+     * @param collisionEngineType type of collision engine for the game's environment.
+     */
+    public Game(CollisionEngineType collisionEngineType) {
         sprites = new SpriteCollection();
-        environment = new GameEnvironment();
+        this.collisionEngineType = collisionEngineType;
+        environment = new GameEnvironment(collisionEngineType.create(getWorldWidth(), getWorldHeight()));
         remainingBlocks = new Counter();
         remainingBalls = new Counter();
         scoreCounter = new Counter();
@@ -54,12 +75,15 @@ public class Game {
     }
 
     /**
-     * Sets the width of the game screen.
+     * Sets the width of the game screen. the collision engine is rebuilt for the new size, keeping all the
+     * collidables.
      *
      * @param gameWidth the width to set, in pixels
      */
     public void setGameWidth(int gameWidth) {
         this.gameWidth = gameWidth;
+        environment.setEngine(collisionEngineType.create(getWorldWidth(), getWorldHeight()));
+        camera = null;
     }
 
     /**
@@ -72,12 +96,48 @@ public class Game {
     }
 
     /**
-     * Sets the height of the game screen.
+     * Sets the height of the game screen. the collision engine is rebuilt for the new size, keeping all the
+     * collidables.
      *
      * @param gameHeight the height to set, in pixels
      */
     public void setGameHeight(int gameHeight) {
         this.gameHeight = gameHeight;
+        environment.setEngine(collisionEngineType.create(getWorldWidth(), getWorldHeight()));
+        camera = null;
+    }
+
+    /**
+     * Returns the width of the world, the window shows the part of it the camera is over.
+     *
+     * @return the width of the world in pixels, at least the width of the game screen.
+     */
+    public int getWorldWidth() {
+        return Math.max(worldWidth, gameWidth);
+    }
+
+    /**
+     * Returns the height of the world, the window shows the part of it the camera is over.
+     *
+     * @return the height of the world in pixels, at least the height of the game screen.
+     */
+    public int getWorldHeight() {
+        return Math.max(worldHeight, gameHeight);
+    }
+
+    /**
+     * Sets the size of the world, for levels larger than the window. the borders are built around the world
+     * (call it before initialize), the collision engine is rebuilt for it, and the camera scrolls over it
+     * following the first ball.
+     *
+     * @param width  width of the world in pixels, the width of the game screen if smaller.
+     * @param height height of the world in pixels, the height of the game screen if smaller.
+     */
+    public void setWorldSize(int width, int height) {
+        this.worldWidth = width;
+        this.worldHeight = height;
+        environment.setEngine(collisionEngineType.create(getWorldWidth(), getWorldHeight()));
+        camera = null;
     }
 
     /**
@@ -97,6 +157,77 @@ public class Game {
         return borderThickness;
     }
 
+    /**
+     * Returns the game's timers, that advance one tick every frame.
+     * use them for delayed and periodic events instead of counting ticks in timePassed.
+     *
+     * @return the timer wheel of the game.
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
+    /**
+     * Returns the camera the game is drawn through. its viewport is the window, over the world of the game (see
+     * setWorldSize), and it follows the first ball while the game runs.
+     *
+     * @return the camera of the game.
+     */
+    public Camera getCamera() {
+        if (camera == null) {
+            camera = new Camera(gameWidth, gameHeight);
+            camera.setWorldSize(getWorldWidth(), getWorldHeight());
+        }
+        return camera;
+    }
+
+    /**
+     * Returns the type of the game's collision engine.
+     *
+     * @return type of the collision engine.
+     */
+    public CollisionEngineType getCollisionEngineType() {
+        return collisionEngineType;
+    }
+
+    /**
+     * Replaces the game's collision engine, keeping all the collidables.
+     *
+     * @param collisionEngineType type of the new collision engine.
+     */
+    public void setCollisionEngine(CollisionEngineType collisionEngineType) {
+        this.collisionEngineType = collisionEngineType;
+        environment.setEngine(collisionEngineType.create(getWorldWidth(), getWorldHeight()));
+    }
+
+    /**
+     * Checks if balls of the game bounce off each other.
+     *
+     * @return true if balls collide with each other, false if they pass through each other.
+     */
+    public boolean isBallCollisionsEnabled() {
+        return ballCollisionSystem != null;
+    }
+
+    /**
+     * Sets whether balls of the game bounce off each other (off by default).
+     *
+     * @param enabled true to make balls collide with each other, false to let them pass through each other.
+     */
+    public void setBallCollisionsEnabled(boolean enabled) {
+        if (enabled == isBallCollisionsEnabled()) {
+            return;
+        }
+        if (!enabled) {
+            ballCollisionSystem = null;
+            return;
+        }
+        ballCollisionSystem = new BallCollisionSystem();
+        for (Ball b : gameBalls) {
+            ballCollisionSystem.add(b);
+        }
+    }
+
     //Methods
 
     /**
@@ -108,6 +239,16 @@ public class Game {
         environment.addCollidable(c);
     }
 
+    /**
+     * Add a collidable that moves (e.g. a paddle) to the game environment.
+     * moving collidables are kept out of the static collision index.
+     *
+     * @param c collidable to add
+     */
+    public void addKinematicCollidable(Collidable c) {
+        environment.addKinematicCollidable(c);
+    }
+
     /**
      * Remove collidable from the game environment.
      *
@@ -126,6 +267,35 @@ public class Game {
         sprites.addSprite(s);
     }
 
+    /**
+     * Add sprite to the given layer of the game's sprites collection.
+     *
+     * @param s     sprite to add
+     * @param layer layer to draw the sprite in
+     */
+    public void addSprite(Sprite s, SpriteLayer layer) {
+        sprites.addSprite(s, layer);
+    }
+
+    /**
+     * Add a background to the game, drawn behind everything else whenever it is added.
+     *
+     * @param s background sprite to add
+     */
+    public void addBackground(Sprite s) {
+        sprites.addSprite(s, SpriteLayer.BACKGROUND);
+    }
+
+    /**
+     * Shows or hides a whole layer of the game's sprites.
+     *
+     * @param layer   the layer.
+     * @param visible true to draw the layer, false to skip it.
+     */
+    public void setLayerVisible(SpriteLayer layer, boolean visible) {
+        sprites.setLayerVisible(layer, visible);
+    }
+
 
     /**
      * Remove sprite from the game's sprites collection.
@@ -136,6 +306,25 @@ public class Game {
         sprites.removeSprite(s);
     }
 
+    /**
+     * Start notifying a sprite of the game that time passed, for sprites that start moving or animating.
+     * it is notified until sleepSprite is called for it.
+     *
+     * @param s sprite to wake.
+     */
+    public void wakeSprite(Sprite s) {
+        sprites.wake(s);
+    }
+
+    /**
+     * Stop notifying a sprite of the game that time passed, it is still drawn.
+     *
+     * @param s sprite to put to sleep.
+     */
+    public void sleepSprite(Sprite s) {
+        sprites.sleep(s);
+    }
+
 
     /**
      * Initializing game, making gui, paddle, ball, and borders.
@@ -143,16 +332,17 @@ public class Game {
     public void initialize() {
 
         this.gui = new GUI("GTA VI : Early Edition", gameWidth, gameHeight);
-        this.sleeper = new Sleeper();
 
-        //add borders
+        //add borders, around the world.
+        int worldW = getWorldWidth();
+        int worldH = getWorldHeight();
         List<Block> borders = new ArrayList<Block>();
-        borders.add(BlockFactory.borderBlock(0, 0, gameWidth, borderThickness, Color.GRAY)); //top
-        borders.add(BlockFactory.borderBlock(gameWidth - borderThickness, 0, borderThickness, gameHeight, Color.GRAY)); //right
-        borders.add(BlockFactory.borderBlock(0, 0, borderThickness, gameHeight, Color.GRAY)); //left
+        borders.add(BlockFactory.borderBlock(0, 0, worldW, borderThickness, Color.GRAY)); //top
+        borders.add(BlockFactory.borderBlock(worldW - borderThickness, 0, borderThickness, worldH, Color.GRAY)); //right
+        borders.add(BlockFactory.borderBlock(0, 0, borderThickness, worldH, Color.GRAY)); //left
 
         // bottom border. is not visible, and if being touched will lead to loss.
-        Block bottomBorder = BlockFactory.borderBlock(0, gameHeight, gameWidth, borderThickness, Color.RED);
+        Block bottomBorder = BlockFactory.borderBlock(0, worldH, worldW, borderThickness, Color.RED);
         HitListener deathListener = new BallRemover(this, remainingBalls);
         bottomBorder.addHitListener(deathListener);
         borders.add(bottomBorder);
@@ -173,44 +363,138 @@ public class Game {
 
     /**
      * run the animation loop. game will start to play until user closes the game or wins.
+     * with the game.renderThread system property set to true, frames are recorded and shown by a separate
+     * render thread (see Game.RenderThread), so showing a frame overlaps the simulation of the next one.
+     * otherwise, with the game.tiledRaster system property set to true, frames are rasterised in memory by tiles
+     * on many threads (see Game.TiledRasterizer), and the finished image is shown with the texts drawn over it.
+     * with the game.recordFrames system property set to a file, the drawing commands of every frame are recorded
+     * to it (see Game.DrawRecorder), to be replayed by Benchmarks.ReplayBenchmark.
+     * with the game.capture system property set to a path, the frames are captured to disk on a background thread
+     * (see Game.FrameCapture), dropping frames rather than slowing the loop down.
+     * the loop is paced to the game.fps system property (60 frames per second by default), see Game.FramePacer.
+     * when frames take longer than the pace allows, blocks are drawn with less detail until there is time again,
+     * see Game.RenderQualityGovernor.
      */
     public void run() {
 
-        int framesPerSecond = 60;
-        int millisecondsPerFrame = 1000 / framesPerSecond;
+        FramePacer pacer = FramePacer.fromSystemProperty();
+        RenderQualityGovernor governor = RenderQualityGovernor.fromSystemProperty(pacer.getPeriodNanos());
+        RenderThread renderThread = null;
+        if (RenderThread.isEnabled()) {
+            renderThread = new RenderThread(gui, gameWidth, gameHeight);
+            renderThread.start();
+        }
+        TiledRasterizer tiles = null;
+        FrameBufferSurface frame = null;
+        if (renderThread == null && TiledRasterizer.isEnabled()) {
+            tiles = new TiledRasterizer(gameWidth, gameHeight);
+            // the texts (the HUD) are drawn on the window after the tiles, in its own font.
+            tiles.setDeferText(true);
+            frame = new FrameBufferSurface(gameWidth, gameHeight);
+        }
+        DrawRecorder recorder = DrawRecorder.fromSystemProperty(gameWidth, gameHeight);
+        FrameCapture capture = FrameCapture.fromSystemProperty(gameWidth, gameHeight);
+        if (capture != null && recorder == null) {
+            // the capture copies the recorded commands of the frames.
+            recorder = new DrawRecorder(gameWidth, gameHeight);
+        }
+        this.sprites.setRecorder(recorder);
+        pacer.start();
         while (true) {
-            long startTime = System.currentTimeMillis(); // timing
-
-            DrawSurface d = gui.getDrawSurface();
-            this.sprites.drawAllOn(d);
-            gui.show(d);
+            long frameStart = System.nanoTime();
+            this.sprites.setQuality(governor.getQuality());
+            if (!gameBalls.isEmpty()) {
+                // the camera is clamped to the world, so it only moves in worlds larger than the window.
+                Ball followed = gameBalls.get(0);
+                getCamera().centerOn(followed.getCenterX(), followed.getCenterY());
+            }
+            DrawSurface d;
+            if (renderThread != null) {
+                d = renderThread.beginFrame();
+            } else if (tiles != null) {
+                tiles.reset();
+                d = tiles;
+            } else {
+                d = gui.getDrawSurface();
+            }
+            if (recorder != null) {
+                this.sprites.drawAllOn(recorder.beginFrame(d), getCamera());
+                recorder.endFrame();
+                if (capture != null) {
+                    capture.submit(recorder.getFrame());
+                }
+            } else {
+                this.sprites.drawAllOn(d, getCamera());
+            }
+            if (renderThread != null) {
+                renderThread.publish();
+            } else if (tiles != null) {
+                frame.clear(0xFFFFFFFF);
+                tiles.render(frame);
+                DrawSurface screen = gui.getDrawSurface();
+                screen.drawImage(0, 0, frame.getImage());
+                tiles.drawDeferredText(screen);
+                gui.show(screen);
+            } else {
+                gui.show(d);
+            }
+            // the other sprites (the paddle) move first, as they did when the balls were stepped as sprites.
             this.sprites.notifyAllTimePassed();
+            this.moveBalls();
+            if (ballCollisionSystem != null) {
+                ballCollisionSystem.resolve();
+            }
+            timers.advance();
 
             // timing
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
-            }
+            governor.frameFinished(System.nanoTime() - frameStart);
+            pacer.waitForNextFrame();
 
 
             // win event
             if (remainingBlocks.getValue() == 0) {
                 scoreCounter.increase(100);
                 System.out.println("You Win!\nYour score is: " + scoreCounter.getValue());
-                gui.close();
+                end(renderThread, pacer, governor, recorder, capture);
                 return;
             }
 
             // lose event
             if (remainingBalls.getValue() == 0) {
                 System.out.println("Game Over.\nYour score is: " + scoreCounter.getValue());
-                gui.close();
+                end(renderThread, pacer, governor, recorder, capture);
                 return;
             }
         }
     }
 
+    // stops the render thread, if the game runs one, prints the pacer and quality statistics if asked, finishes
+    // the frame recording and capture, if there are ones, and closes the GUI.
+    private void end(RenderThread renderThread, FramePacer pacer, RenderQualityGovernor governor,
+                     DrawRecorder recorder, FrameCapture capture) {
+        if (renderThread != null) {
+            renderThread.stop();
+        }
+        if (FramePacer.isStatsEnabled()) {
+            System.out.println("Frame pacing: " + pacer.getStats());
+            System.out.println("Render quality: " + governor.getQuality() + ", changed " + governor.getChanges()
+                    + " times");
+        }
+        if (recorder != null) {
+            System.out.println("Recorded " + recorder.getStats());
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.out.println("Can't finish the frame recording: " + e.getMessage());
+            }
+        }
+        if (capture != null) {
+            capture.stop();
+            System.out.println("Captured " + capture.getStats());
+        }
+        gui.close();
+    }
+
     /**
      * Generate and add to game a game-block. referring to game as board of 15x26 rectangles.
      *
@@ -252,6 +536,33 @@ public class Game {
         addSprite(b);
     }
 
+    /**
+     * Add a store of blocks to the game, with all of its blocks.
+     * the blocks of the store are counted as remaining blocks, and the game's block listeners are added to the
+     * store. should be called after initialize.
+     *
+     * @param store store of blocks to add to game.
+     */
+    public void addBlockStore(BlockStore store) {
+        remainingBlocks.increase(store.getAliveCount());
+        for (HitListener hl : blockHitListeners) {
+            store.addHitListener(hl);
+        }
+        environment.addBlockStore(store);
+        addSprite(store);
+    }
+
+    /**
+     * Bring a removed block of a store back to the game, counting it as a remaining block again.
+     *
+     * @param b view of the block to bring back.
+     */
+    void addStoredBlock(StoredBlock b) {
+        if (b.getStore().restore(b.getId())) {
+            remainingBlocks.increase(1);
+        }
+    }
+
     /**
      * Add ball to game.
      *
@@ -260,8 +571,65 @@ public class Game {
     public void addBall(Ball b) {
         remainingBalls.increase(1);
         b.setGameEnvironment(this.environment);
+        b.setBatchStepped(true);
         sprites.addSprite(b);
         gameBalls.add(b);
+        if (ballCollisionSystem != null) {
+            ballCollisionSystem.add(b);
+        }
+    }
+
+    /**
+     * Remove ball from game.
+     *
+     * @param b ball to remove
+     */
+    public void removeBall(Ball b) {
+        sprites.removeSprite(b);
+        if (gameBalls.remove(b)) {
+            b.setBatchStepped(false);
+        }
+        if (ballCollisionSystem != null) {
+            ballCollisionSystem.remove(b);
+        }
+    }
+
+    /**
+     * Move all the balls of the game one step, querying all their trajectories in one batch.
+     * if a hit removed a collidable, the balls after it query their trajectory again on their own.
+     */
+    private void moveBalls() {
+        int count = gameBalls.size();
+        if (ballCollisions.length < count) {
+            ballTrajectories = new double[4 * count];
+            ballRadii = new double[count];
+            CollisionResult[] grown = new CollisionResult[count];
+            for (int i = 0; i < count; i++) {
+                grown[i] = i < ballCollisions.length ? ballCollisions[i] : new CollisionResult();
+            }
+            ballCollisions = grown;
+        }
+
+        Ball[] balls = gameBalls.toArray(ballBuffer);
+        ballBuffer = balls;
+        for (int i = 0; i < count; i++) {
+            balls[i].writeTrajectory(ballTrajectories, 4 * i);
+            ballRadii[i] = balls[i].getSize();
+        }
+        environment.getClosestCollisions(ballTrajectories, ballRadii, ballCollisions, count);
+
+        int batchModificationCount = environment.getModificationCount();
+        for (int i = 0; i < count; i++) {
+            // skip balls that were removed earlier in this step.
+            if (!balls[i].isBatchStepped()) {
+                continue;
+            }
+            if (environment.getModificationCount() == batchModificationCount) {
+                balls[i].moveOneStep(ballCollisions[i]);
+            } else {
+                balls[i].moveOneStep();
+            }
+        }
     }
 
 
@@ -4,23 +4,55 @@ import Geometry.Line;
 import Geometry.Point;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * a class that holds all the collidable of the game, and can operate actions on them.
+ * static collidables (blocks, borders) are kept in the index of a collision engine, which is built once and
+ * only updated when one is removed. kinematic collidables (paddles, moving blocks) are kept in a small
+ * separate set that reads their current bounds on every query, so moving them never touches the index.
  */
 public class GameEnvironment {
     //fields
-    private final List<Collidable> allCollideables;
+    private static final int RAY_GROUP_SIZE = 8;
+    private static final double COHERENCE_CELL_SIZE = 64;
+    private static final int MAX_CELL = 0xFFFF;
+
+    private CollisionEngine engine;
+    private final CollisionEngine kinematic = new BruteForceCollisionEngine();
+    private final List<CollisionSource> sources = new ArrayList<>();
+    private final IntList sourceOrders = new IntList();
+    private int nextOrder = 0;
+    private int modificationCount = 0;
+
+    // scratch buffers of the queries, reused between ticks.
+    private final SegmentCast cast = new SegmentCast();
+    private final ClosestHitSearch search = new ClosestHitSearch();
+    private final CandidateBuffer candidates = new CandidateBuffer();
+    private final CollisionResult singleResult = new CollisionResult();
+    private final SlabKernel slabKernel = SlabKernel.create();
+    private double[] entryTimes = new double[16];
+    private long[] batchOrder = new long[0];
 
     //constructor
 
+    /**
+     * Create Game.GameEnvironment object without any collideables, using the given collision engine.
+     * this class holds all collideables in game.
+     *
+     * @param engine the collision engine that indexes the collidables.
+     */
+    public GameEnvironment(CollisionEngine engine) {
+        this.engine = engine;
+    }
+
     /**
      * Create Game.GameEnvironment object without any collideables.
      * this class holds all collideables in game.
      */
     public GameEnvironment() {
-        allCollideables = new ArrayList<Collidable>();
+        this(new BruteForceCollisionEngine());
     }
 
     /**
@@ -30,21 +62,89 @@ public class GameEnvironment {
      * @param collideables list of collideables.
      */
     public GameEnvironment(List<Collidable> collideables) {
-        allCollideables = new ArrayList<Collidable>(collideables);
+        this();
+        for (Collidable c : collideables) {
+            addCollidable(c);
+        }
     }
 
 
     // Methods
 
     /**
-     * Add the given collidable to the environment.
+     * Replaces the collision engine of the static collidables, moving them all to the new one.
+     *
+     * @param newEngine an empty collision engine.
+     */
+    public void setEngine(CollisionEngine newEngine) {
+        engine.refresh();
+        CandidateBuffer all = new CandidateBuffer();
+        engine.collectAll(all);
+        for (int i = 0; i < all.size(); i++) {
+            newEngine.add(all.getCollidable(i), all.getOrder(i));
+        }
+        this.engine = newEngine;
+    }
+
+    /**
+     * @return the collision engine that indexes the static collidables.
+     */
+    public CollisionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the kernel that computes the entry times of the candidates (vector or scalar).
+     */
+    public SlabKernel getSlabKernel() {
+        return slabKernel;
+    }
+
+    /**
+     * Add the given static collidable to the environment.
+     * static collidables are indexed once, a collidable that moves should be added with
+     * addKinematicCollidable instead.
      *
      * @param c Collidable to add.
      */
     public void addCollidable(Collidable c) {
-        allCollideables.add(c);
+        engine.add(c, nextOrder++);
+        modificationCount++;
     }
 
+    /**
+     * Add the given kinematic (moving) collidable to the environment.
+     * kinematic collidables are not indexed, every query tests them with their current bounds.
+     *
+     * @param c Collidable to add.
+     */
+    public void addKinematicCollidable(Collidable c) {
+        kinematic.add(c, nextOrder++);
+        modificationCount++;
+    }
+
+
+    /**
+     * Add the blocks of the given store to the environment.
+     * the store indexes its own blocks, every query also asks it for the blocks near the queried box.
+     *
+     * @param store store of blocks to add.
+     */
+    public void addBlockStore(BlockStore store) {
+        addCollisionSource(store);
+    }
+
+    /**
+     * Add a source of collidables that indexes itself to the environment.
+     * every query also asks it for the collidables near the queried box.
+     *
+     * @param source the source to add.
+     */
+    public void addCollisionSource(CollisionSource source) {
+        sources.add(source);
+        sourceOrders.add(nextOrder++);
+        modificationCount++;
+    }
 
     /**
      * Removes the given collidable from the environment.
@@ -52,29 +152,196 @@ public class GameEnvironment {
      * @param c Collidable to remove.
      */
     public void removeCollidable(Collidable c) {
-        allCollideables.remove(c);
+        if (engine.remove(c) || kinematic.remove(c)) {
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Re-indexes static collidables that were moved after they were added.
+     * never needed for kinematic collidables.
+     */
+    public void refresh() {
+        engine.refresh();
+    }
+
+    /**
+     * Returns the number of times collidables were added or removed.
+     * batch results computed before this number changed might point at a removed collidable.
+     *
+     * @return the modification count of the environment.
+     */
+    public int getModificationCount() {
+        int count = modificationCount;
+        for (CollisionSource source : sources) {
+            count += source.getModificationCount();
+        }
+        return count;
     }
 
     /**
      * Returns the closest collision that would occur along the given trajectory,
      * based on the current list of collidable objects.
      * If there are no collisions, returns null.
+     * collidables are tested front to back: the ones whose box can't be entered before the closest
+     * collision found so far are never tested exactly.
      *
      * @param trajectory the path the object is expected to move along
      * @return the Game.CollisionInfo of the closest collision, or null if no collisions are detected
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        List<CollisionInfo> occurringCollisions = new ArrayList<CollisionInfo>();
+        return getClosestCollision(trajectory, 0);
+    }
+
+    /**
+     * Returns the closest collision of a circle whose centre moves along the given trajectory.
+     * the centre is tested against the collidables inflated by the radius, with rounded corners, so the
+     * collision point is where the centre is when the circle first touches a collidable.
+     * If there are no collisions, returns null.
+     *
+     * @param trajectory the path the centre is expected to move along
+     * @param radius     the radius of the circle, 0 for a point
+     * @return the Game.CollisionInfo of the closest collision, or null if no collisions are detected
+     */
+    public CollisionInfo getClosestCollision(Line trajectory, double radius) {
+        Point start = trajectory.start();
+        Point end = trajectory.end();
+        cast.set(start.getX(), start.getY(), end.getX(), end.getY(), radius);
+        queryCandidates(Math.min(start.getX(), end.getX()), Math.min(start.getY(), end.getY()),
+                Math.max(start.getX(), end.getX()), Math.max(start.getY(), end.getY()), radius);
+        offerCandidates();
+        candidates.clear();
+        search.run(cast, singleResult);
+        return singleResult.toCollisionInfo();
+    }
+
+    /**
+     * Finds the closest collision of every trajectory in a batch, using one pass over the collidables
+     * for each group of nearby trajectories.
+     * trajectories are packed in segments as x1, y1, x2, y2 (4 doubles each), and slot i of out is filled
+     * with the closest collision of trajectory i, or cleared if there is none.
+     * trajectories are grouped by the position of their start point, so every collidable is fetched and
+     * rejected once per group instead of once per trajectory.
+     *
+     * @param segments packed trajectories.
+     * @param out      reusable result slots, one for each trajectory.
+     */
+    public void getClosestCollisions(double[] segments, CollisionResult[] out) {
+        getClosestCollisions(segments, null, out, Math.min(segments.length / 4, out.length));
+    }
+
+    /**
+     * Finds the closest collision of the first count trajectories in a batch.
+     * see getClosestCollisions(double[], CollisionResult[]).
+     *
+     * @param segments packed trajectories.
+     * @param out      reusable result slots, one for each trajectory.
+     * @param count    number of trajectories to query.
+     */
+    public void getClosestCollisions(double[] segments, CollisionResult[] out, int count) {
+        getClosestCollisions(segments, null, out, count);
+    }
 
-        for (Collidable curCol : allCollideables) {
-            Point interPoint = trajectory.closestIntersectionToStartOfLine(curCol.getCollisionRectangle());
-            if (interPoint != null) {
-                occurringCollisions.add(new CollisionInfo(interPoint, curCol));
+    /**
+     * Finds the closest collision of the first count circles in a batch, circle i has radius radii[i] and
+     * its centre moves along trajectory i. see getClosestCollision(Line, double).
+     *
+     * @param segments packed trajectories of the centres.
+     * @param radii    radius of every circle, or null for points.
+     * @param out      reusable result slots, one for each trajectory.
+     * @param count    number of trajectories to query.
+     */
+    public void getClosestCollisions(double[] segments, double[] radii, CollisionResult[] out, int count) {
+        sortBySpatialKey(segments, count);
+
+        for (int groupStart = 0; groupStart < count; groupStart += RAY_GROUP_SIZE) {
+            int groupEnd = Math.min(groupStart + RAY_GROUP_SIZE, count);
+
+            // bounding box of the whole group.
+            double groupMinX = Double.POSITIVE_INFINITY;
+            double groupMinY = Double.POSITIVE_INFINITY;
+            double groupMaxX = Double.NEGATIVE_INFINITY;
+            double groupMaxY = Double.NEGATIVE_INFINITY;
+            double groupRadius = 0;
+            for (int k = groupStart; k < groupEnd; k++) {
+                int o = 4 * rayAt(k);
+                groupRadius = Math.max(groupRadius, radiusOf(radii, rayAt(k)));
+                groupMinX = Math.min(groupMinX, Math.min(segments[o], segments[o + 2]));
+                groupMinY = Math.min(groupMinY, Math.min(segments[o + 1], segments[o + 3]));
+                groupMaxX = Math.max(groupMaxX, Math.max(segments[o], segments[o + 2]));
+                groupMaxY = Math.max(groupMaxY, Math.max(segments[o + 1], segments[o + 3]));
+            }
+
+            // fetch the collidables near the group once, inflated for the group's largest circle.
+            queryCandidates(groupMinX, groupMinY, groupMaxX, groupMaxY, groupRadius);
+
+            // front to back search of every trajectory of the group over the group's candidates.
+            for (int k = groupStart; k < groupEnd; k++) {
+                int i = rayAt(k);
+                int o = 4 * i;
+                cast.set(segments[o], segments[o + 1], segments[o + 2], segments[o + 3], radiusOf(radii, i));
+                offerCandidates();
+                search.run(cast, out[i]);
             }
+            candidates.clear();
+        }
+    }
+
+    // buffers the static and kinematic collidables and the collidables of the sources that a circle of the
+    // given radius in the box might touch.
+    private void queryCandidates(double minX, double minY, double maxX, double maxY, double radius) {
+        engine.query(minX, minY, maxX, maxY, radius, candidates);
+        kinematic.query(minX, minY, maxX, maxY, radius, candidates);
+        for (int i = 0; i < sources.size(); i++) {
+            sources.get(i).query(minX, minY, maxX, maxY, radius, sourceOrders.get(i), candidates);
+        }
+    }
+
+    // offers the buffered candidates whose inflated bounds the cast segment enters to the search.
+    // the entry times of all the candidates are computed in one call of the slab kernel.
+    private void offerCandidates() {
+        if (entryTimes.length < candidates.size()) {
+            entryTimes = new double[Math.max(2 * entryTimes.length, candidates.size())];
+        }
+        if (slabKernel.entryTimes(cast, candidates, entryTimes) < 0) {
+            return;
         }
-        if (occurringCollisions.isEmpty()) {
-            return null;
+        for (int c = 0; c < candidates.size(); c++) {
+            search.offer(candidates.getCollidable(c), entryTimes[c], candidates.getOrder(c));
+        }
+    }
+
+    private static double radiusOf(double[] radii, int ray) {
+        return radii == null ? 0 : radii[ray];
+    }
+
+    // orders the first count trajectories by a Z-order key of their start point,
+    // so that consecutive trajectories in the order are close to each other.
+    private void sortBySpatialKey(double[] segments, int count) {
+        if (batchOrder.length < count) {
+            batchOrder = new long[count];
+        }
+        for (int i = 0; i < count; i++) {
+            long key = spatialKey(segments[4 * i], segments[4 * i + 1]);
+            batchOrder[i] = (key << 32) | i;
+        }
+        Arrays.sort(batchOrder, 0, count);
+    }
+
+    // index of the trajectory at the given position of the spatial order.
+    private int rayAt(int position) {
+        return (int) batchOrder[position];
+    }
+
+    // interleaves the bits of the coarse cell coordinates of the point (Morton code).
+    private static long spatialKey(double x, double y) {
+        long cellX = Math.max(0, Math.min(MAX_CELL, (long) (x / COHERENCE_CELL_SIZE)));
+        long cellY = Math.max(0, Math.min(MAX_CELL, (long) (y / COHERENCE_CELL_SIZE)));
+        long key = 0;
+        for (int bit = 0; bit < 16; bit++) {
+            key |= ((cellX >> bit) & 1L) << (2 * bit);
+            key |= ((cellY >> bit) & 1L) << (2 * bit + 1);
         }
-        return trajectory.closestIntersectionToStartOfLine(occurringCollisions);
+        return key;
     }
 }
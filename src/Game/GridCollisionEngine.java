@@ -0,0 +1,70 @@
+package Game;
+
+/**
+ * Collision engine over an unbounded uniform grid: cells are kept in a hash table and created on demand,
+ * so the world can have any size.
+ */
+public class GridCollisionEngine extends CellCollisionEngine {
+    // fields
+    /**
+     * Default width and height of a cell.
+     */
+    public static final double DEFAULT_CELL_SIZE = 64;
+
+    // coordinates beyond this are folded into the outermost cells, to keep the cell keys in range.
+    private static final int MAX_CELL = 1 << 20;
+
+    private final CellTable cells = new CellTable();
+
+    // constructors
+
+    /**
+     * Creates an empty grid with square cells of the given size.
+     *
+     * @param cellSize width and height of a cell.
+     */
+    public GridCollisionEngine(double cellSize) {
+        super(cellSize, cellSize);
+    }
+
+    /**
+     * Creates an empty grid with cells of the default size.
+     */
+    public GridCollisionEngine() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    // Methods
+
+    /**
+     * Returns the list of slots of a cell.
+     *
+     * @param cellX  column of the cell.
+     * @param cellY  row of the cell.
+     * @param create true to create the cell if it doesn't exist.
+     * @return the list of slots in the cell, or null if it doesn't exist and create is false.
+     */
+    @Override
+    protected IntList getCell(int cellX, int cellY, boolean create) {
+        long key = CellTable.key(cellX, cellY);
+        return create ? cells.getOrCreate(key) : cells.get(key);
+    }
+
+    /**
+     * @param cellX a column.
+     * @return the column, folded into the range of the grid.
+     */
+    @Override
+    protected int clampCellX(int cellX) {
+        return Math.max(-MAX_CELL, Math.min(MAX_CELL, cellX));
+    }
+
+    /**
+     * @param cellY a row.
+     * @return the row, folded into the range of the grid.
+     */
+    @Override
+    protected int clampCellY(int cellY) {
+        return Math.max(-MAX_CELL, Math.min(MAX_CELL, cellY));
+    }
+}
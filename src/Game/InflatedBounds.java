@@ -0,0 +1,103 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * Cache of the bounds of the slots of a Game.BoundsTable, inflated by one radius (Minkowski sum with a box of
+ * that radius). a query for balls of this radius reads the inflated bounds as they are, instead of inflating
+ * them again for every ball. every entry remembers the read of the table it was computed from, so a slot is
+ * inflated again only after the table re-read its bounds.
+ */
+public class InflatedBounds {
+    // fields
+    private final double radius;
+    private double[] bounds = new double[64];
+    private int[] reads = new int[16];
+
+    // constructor
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param radius the radius every box is inflated by.
+     */
+    public InflatedBounds(double radius) {
+        this.radius = radius;
+    }
+
+    // Methods
+
+    /**
+     * @return the radius every box is inflated by.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Checks if the cached bounds of a slot were computed from the given read of the table.
+     *
+     * @param slot a slot.
+     * @param read the number of the last read of the slot's bounds by the table (never 0).
+     * @return true if the cached bounds are up to date, false otherwise.
+     */
+    public boolean isCurrent(int slot, int read) {
+        return slot < reads.length && reads[slot] == read;
+    }
+
+    /**
+     * Inflates bounds of a slot and caches them.
+     *
+     * @param slot   the slot.
+     * @param read   the number of the read of the table these bounds come from.
+     * @param left   left x of the bounds.
+     * @param top    top y of the bounds.
+     * @param right  right x of the bounds.
+     * @param bottom bottom y of the bounds.
+     */
+    public void store(int slot, int read, double left, double top, double right, double bottom) {
+        if (slot >= reads.length) {
+            int capacity = Math.max(2 * reads.length, slot + 1);
+            reads = Arrays.copyOf(reads, capacity);
+            bounds = Arrays.copyOf(bounds, 4 * capacity);
+        }
+        int o = 4 * slot;
+        bounds[o] = left - radius;
+        bounds[o + 1] = top - radius;
+        bounds[o + 2] = right + radius;
+        bounds[o + 3] = bottom + radius;
+        reads[slot] = read;
+    }
+
+    /**
+     * @param slot a slot with up to date bounds.
+     * @return inflated left x of the slot.
+     */
+    public double getMinX(int slot) {
+        return bounds[4 * slot];
+    }
+
+    /**
+     * @param slot a slot with up to date bounds.
+     * @return inflated top y of the slot.
+     */
+    public double getMinY(int slot) {
+        return bounds[4 * slot + 1];
+    }
+
+    /**
+     * @param slot a slot with up to date bounds.
+     * @return inflated right x of the slot.
+     */
+    public double getMaxX(int slot) {
+        return bounds[4 * slot + 2];
+    }
+
+    /**
+     * @param slot a slot with up to date bounds.
+     * @return inflated bottom y of the slot.
+     */
+    public double getMaxY(int slot) {
+        return bounds[4 * slot + 3];
+    }
+}
@@ -0,0 +1,86 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used by the collision engines to hold slot numbers without boxing.
+ * the order of the items is not kept by remove.
+ */
+public class IntList {
+    // fields
+    private int[] items;
+    private int size;
+
+    // constructor
+
+    /**
+     * Creates an empty list.
+     */
+    public IntList() {
+        items = new int[4];
+        size = 0;
+    }
+
+    // Methods
+
+    /**
+     * Adds a value to the end of the list.
+     *
+     * @param value value to add.
+     */
+    public void add(int value) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, 2 * size);
+        }
+        items[size++] = value;
+    }
+
+    /**
+     * Removes one occurrence of the value, moving the last item to its place.
+     *
+     * @param value value to remove.
+     * @return true if the value was found and removed, false otherwise.
+     */
+    public boolean removeValue(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value) {
+                items[i] = items[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the last item of the list and returns it.
+     *
+     * @return the removed item.
+     */
+    public int removeLast() {
+        return items[--size];
+    }
+
+    /**
+     * Returns the item at the given index.
+     *
+     * @param index index of the item.
+     * @return the item.
+     */
+    public int get(int index) {
+        return items[index];
+    }
+
+    /**
+     * @return number of items in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the items of the list.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
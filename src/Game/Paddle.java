@@ -2,7 +2,7 @@ package Game;
 
 import Geometry.Ball;
 import Geometry.Point;
-import Geometry.Rectangle;
+import Geometry.ReadOnlyRectangle;
 import Geometry.Velocity;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
@@ -12,6 +12,20 @@ import biuoop.KeyboardSensor;
  */
 public class Paddle implements Sprite, Collidable {
     //fields
+    private static final int SEGMENTS = 5;
+    // direction (for speed 1) the ball leaves each segment at, from left to right: the angles 120, 150, 180,
+    // 210 and 240 of Velocity.fromAngleAndSpeed, computed once so a bounce costs no trigonometry.
+    private static final double[] SEGMENT_DX = new double[SEGMENTS];
+    private static final double[] SEGMENT_DY = new double[SEGMENTS];
+
+    static {
+        for (int i = 0; i < SEGMENTS; i++) {
+            Velocity direction = Velocity.fromAngleAndSpeed(120 + 30 * i, -1);
+            SEGMENT_DX[i] = direction.getDx();
+            SEGMENT_DY[i] = direction.getDy();
+        }
+    }
+
     private biuoop.KeyboardSensor keyboard;
     private final Block delegator;
     private final Game game;
@@ -37,10 +51,10 @@ public class Paddle implements Sprite, Collidable {
      * Move the paddle to the left. motion is circular.
      */
     public void moveLeft() {
-        double curX = this.delegator.getUpperLeft().getX();
-        double curY = this.delegator.getUpperLeft().getY();
+        double curX = this.delegator.getMinX();
+        double curY = this.delegator.getMinY();
         double paddleWidth = this.delegator.getWidth();
-        int gameWidth = this.game.getGameWidth();
+        int gameWidth = this.game.getWorldWidth();
 
         if (curX + paddleWidth - speed <= 0) {
             this.delegator.setUpperLeft(gameWidth - speed, curY);
@@ -53,10 +67,10 @@ public class Paddle implements Sprite, Collidable {
      * Move the paddle to the right. motion is circular.
      */
     public void moveRight() {
-        double curX = this.delegator.getUpperLeft().getX();
-        double curY = this.delegator.getUpperLeft().getY();
+        double curX = this.delegator.getMinX();
+        double curY = this.delegator.getMinY();
         double paddleWidth = this.delegator.getWidth();
-        int gameWidth = this.game.getGameWidth();
+        int gameWidth = this.game.getWorldWidth();
 
         if (curX + speed >= gameWidth) {
             this.delegator.setUpperLeft(-paddleWidth + speed, curY);
@@ -95,10 +109,45 @@ public class Paddle implements Sprite, Collidable {
      *
      * @return rectangle object of paddle.
      */
-    public Rectangle getCollisionRectangle() {
+    public ReadOnlyRectangle getCollisionRectangle() {
         return delegator.getCollisionRectangle();
     }
 
+    /**
+     * @return left x of the paddle.
+     */
+    public double getMinX() {
+        return delegator.getMinX();
+    }
+
+    /**
+     * @return top y of the paddle.
+     */
+    public double getMinY() {
+        return delegator.getMinY();
+    }
+
+    /**
+     * @return right x of the paddle.
+     */
+    public double getMaxX() {
+        return delegator.getMaxX();
+    }
+
+    /**
+     * @return bottom y of the paddle.
+     */
+    public double getMaxY() {
+        return delegator.getMaxY();
+    }
+
+    /**
+     * @return counter that changes whenever the paddle moves.
+     */
+    public int getBoundsVersion() {
+        return delegator.getBoundsVersion();
+    }
+
     /**
      * calculates the return velocity of given object after hitting the paddle.
      *
@@ -108,25 +157,32 @@ public class Paddle implements Sprite, Collidable {
      * @return expected velocity after hit.
      */
     public Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity) {
+        return bounce(collisionPoint.getX(), currentVelocity);
+    }
+
+    /**
+     * calculates the return velocity of given object after a hit found by the intersection kernel.
+     *
+     * @param hitter          ball that is hitting the paddle.
+     * @param collision       the collision.
+     * @param currentVelocity velocity before hit.
+     * @return expected velocity after hit.
+     */
+    @Override
+    public Velocity hit(Ball hitter, CollisionInfo collision, Velocity currentVelocity) {
+        return bounce(collision.getX(), currentVelocity);
+    }
+
+    // the paddle is split into 5 segments, each bouncing the ball at a different angle.
+    private Velocity bounce(double collisionX, Velocity currentVelocity) {
         //calculate in what segment the ball hit
-        double relativeX = collisionPoint.getX() - this.delegator.getUpperLeft().getX();
-        int segment = (int) Math.floor((relativeX / this.delegator.getWidth()) * 5);
+        double relativeX = collisionX - this.delegator.getMinX();
+        int segment = (int) Math.floor((relativeX / this.delegator.getWidth()) * SEGMENTS);
+        // a ball's centre can touch the paddle beyond its ends (at the rounded corners), those hits count for
+        // the outer segments.
+        segment = Math.max(0, Math.min(SEGMENTS - 1, segment));
         double currentSpeed = currentVelocity.getSpeed();
-        switch (segment) {
-            case 0:
-                return Velocity.fromAngleAndSpeed(120, -currentSpeed);
-            case 1:
-                return Velocity.fromAngleAndSpeed(150, -currentSpeed);
-            case 2:
-                return Velocity.fromAngleAndSpeed(180, -currentSpeed);
-            case 3:
-                return Velocity.fromAngleAndSpeed(210, -currentSpeed);
-            case 4:
-                return Velocity.fromAngleAndSpeed(240, -currentSpeed);
-            default:
-                return currentVelocity;
-        }
-
+        return new Velocity(SEGMENT_DX[segment] * currentSpeed, SEGMENT_DY[segment] * currentSpeed);
     }
 
     // Add this paddle to the game.
@@ -138,6 +194,6 @@ public class Paddle implements Sprite, Collidable {
      */
     public void addToGame(Game g) {
         g.addSprite(this);
-        g.addCollidable(this);
+        g.addKinematicCollidable(this);
     }
 }
@@ -0,0 +1,59 @@
+package Game;
+
+/**
+ * Levels of detail blocks are drawn with, from the most detailed to the cheapest.
+ * lower levels drop parts of the blocks' styles, whatever their flags are, see Game.RenderQualityGovernor.
+ */
+public enum RenderQuality {
+    /**
+     * Blocks are drawn as their styles say.
+     */
+    FULL,
+
+    /**
+     * Blocks are drawn without shades.
+     */
+    NO_SHADES,
+
+    /**
+     * Blocks are drawn without shades and outlines, as plain fills.
+     */
+    NO_OUTLINES,
+
+    /**
+     * Blocks are drawn as plain fills, and adjacent blocks of the same color are filled as one rectangle.
+     */
+    MERGED;
+
+    /**
+     * Removes the flags of a style that are not drawn at this level.
+     *
+     * @param flags flags of a Game.BlockStyle.
+     * @return the flags that are drawn.
+     */
+    public int filter(int flags) {
+        switch (this) {
+            case FULL:
+                return flags;
+            case NO_SHADES:
+                return flags & ~BlockStyle.SHADES;
+            default:
+                return flags & ~(BlockStyle.SHADES | BlockStyle.OUTLINE);
+        }
+    }
+
+    /**
+     * @return the next cheaper level, this level if it is the cheapest.
+     */
+    public RenderQuality lower() {
+        RenderQuality[] levels = values();
+        return levels[Math.min(ordinal() + 1, levels.length - 1)];
+    }
+
+    /**
+     * @return the next more detailed level, this level if it is the most detailed.
+     */
+    public RenderQuality higher() {
+        return values()[Math.max(ordinal() - 1, 0)];
+    }
+}
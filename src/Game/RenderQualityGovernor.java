@@ -0,0 +1,130 @@
+package Game;
+
+/**
+ * Chooses the Game.RenderQuality of the frames from how long the recent frames took against the frame budget.
+ * the frame times are smoothed, and when they stay above OVER_BUDGET of the budget for DEGRADE_FRAMES frames the
+ * quality drops one level; when they stay below UNDER_BUDGET for RESTORE_FRAMES frames it rises one level. the
+ * gap between the two thresholds and the longer wait for restoring keep the quality from flickering between
+ * levels, so a weak machine settles on the most detailed level it can draw at the target frame rate.
+ */
+public class RenderQualityGovernor {
+    // constants
+
+    /**
+     * Name of the system property that sets the quality: "auto" (the default) to adapt it, or the name of a
+     * level to keep it fixed.
+     */
+    public static final String PROPERTY = "game.renderQuality";
+
+    private static final double SMOOTHING = 0.1;
+    private static final double OVER_BUDGET = 0.9;
+    private static final double UNDER_BUDGET = 0.5;
+    private static final int DEGRADE_FRAMES = 15;
+    private static final int RESTORE_FRAMES = 120;
+
+    // fields
+    private final long budgetNanos;
+    private final boolean adaptive;
+    private RenderQuality quality;
+    private double averageNanos = 0;
+    private int overFrames = 0;
+    private int underFrames = 0;
+    private int changes = 0;
+
+    // constructor
+
+    /**
+     * Creates a governor.
+     *
+     * @param budgetNanos time a frame may take, in nanoseconds (the period of the frame rate).
+     * @param quality     the quality to start at.
+     * @param adaptive    true to adapt the quality to the frame times, false to keep it.
+     */
+    public RenderQualityGovernor(long budgetNanos, RenderQuality quality, boolean adaptive) {
+        this.budgetNanos = budgetNanos;
+        this.quality = quality;
+        this.adaptive = adaptive;
+    }
+
+    // Methods
+
+    /**
+     * Creates a governor as the game.renderQuality system property says.
+     *
+     * @param budgetNanos time a frame may take, in nanoseconds.
+     * @return the governor.
+     */
+    public static RenderQualityGovernor fromSystemProperty(long budgetNanos) {
+        String value = System.getProperty(PROPERTY, "auto");
+        for (RenderQuality level : RenderQuality.values()) {
+            if (level.name().equalsIgnoreCase(value)) {
+                return new RenderQualityGovernor(budgetNanos, level, false);
+            }
+        }
+        return new RenderQualityGovernor(budgetNanos, RenderQuality.FULL, true);
+    }
+
+    /**
+     * Records how long a frame took (drawing and updating, without waiting for the next frame), and changes the
+     * quality if the recent frames were over or well under the budget.
+     *
+     * @param frameNanos time the frame took, in nanoseconds.
+     */
+    public void frameFinished(long frameNanos) {
+        averageNanos = averageNanos == 0 ? frameNanos : averageNanos + SMOOTHING * (frameNanos - averageNanos);
+        if (!adaptive) {
+            return;
+        }
+        if (averageNanos > OVER_BUDGET * budgetNanos) {
+            underFrames = 0;
+            if (++overFrames >= DEGRADE_FRAMES) {
+                overFrames = 0;
+                change(quality.lower());
+            }
+        } else if (averageNanos < UNDER_BUDGET * budgetNanos) {
+            overFrames = 0;
+            if (++underFrames >= RESTORE_FRAMES) {
+                underFrames = 0;
+                change(quality.higher());
+            }
+        } else {
+            overFrames = 0;
+            underFrames = 0;
+        }
+    }
+
+    /**
+     * @return the quality the next frame should be drawn at.
+     */
+    public RenderQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * @return true if the quality adapts to the frame times, false if it is fixed.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return the smoothed time of the recent frames, in nanoseconds.
+     */
+    public double getAverageNanos() {
+        return averageNanos;
+    }
+
+    /**
+     * @return number of times the quality changed.
+     */
+    public int getChanges() {
+        return changes;
+    }
+
+    private void change(RenderQuality next) {
+        if (next != quality) {
+            quality = next;
+            changes++;
+        }
+    }
+}
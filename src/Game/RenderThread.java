@@ -0,0 +1,140 @@
+package Game;
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread that draws the frames of the game on its GUI, so a slow present doesn't stall the simulation.
+ * the simulation records every frame into a Game.CommandBuffer and publishes it, the render thread replays the
+ * latest published frame on the GUI and shows it. the frames are triple buffered: the simulation records into
+ * one buffer, the render thread replays another, and the third holds the latest published frame. publishing
+ * and taking a frame swap buffers with one atomic exchange, so neither side ever waits for the other, and
+ * frames the render thread was too slow to show are skipped.
+ */
+public class RenderThread implements Runnable {
+    // constants
+
+    /**
+     * Name of the system property that runs the game with a render thread ("true").
+     */
+    public static final String PROPERTY = "game.renderThread";
+
+    private static final long IDLE_NANOS = 1_000_000L;
+
+    // fields
+    private final GUI gui;
+    private final AtomicReference<CommandBuffer> latest;
+    private final AtomicLong shownFrames = new AtomicLong();
+    private final Thread thread;
+    private CommandBuffer recording;
+    private CommandBuffer replaying;
+    private long publishedFrames = 0;
+    private volatile boolean running = false;
+
+    // constructor
+
+    /**
+     * Creates a render thread for the given GUI, start it with start.
+     *
+     * @param gui    the GUI to draw on.
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     */
+    public RenderThread(GUI gui, int width, int height) {
+        this.gui = gui;
+        this.recording = new CommandBuffer(width, height);
+        this.replaying = new CommandBuffer(width, height);
+        this.latest = new AtomicReference<>(new CommandBuffer(width, height));
+        this.thread = new Thread(this, "render");
+        this.thread.setDaemon(true);
+    }
+
+    // Methods
+
+    /**
+     * Checks the game.renderThread system property.
+     *
+     * @return true if the game should draw on a render thread, false otherwise.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops the thread, after it finished showing the frame it is showing.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts recording a new frame, called by the simulation thread.
+     *
+     * @return the buffer to draw the frame on.
+     */
+    public CommandBuffer beginFrame() {
+        recording.reset(publishedFrames + 1);
+        return recording;
+    }
+
+    /**
+     * Publishes the frame recorded since beginFrame as the latest frame, called by the simulation thread.
+     */
+    public void publish() {
+        publishedFrames++;
+        recording = latest.getAndSet(recording);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return number of frames the simulation published.
+     */
+    public long getPublishedFrames() {
+        return publishedFrames;
+    }
+
+    /**
+     * @return number of frames the render thread showed, the rest were skipped for newer ones.
+     */
+    public long getShownFrames() {
+        return shownFrames.get();
+    }
+
+    /**
+     * Shows every new frame as it is published, until stop is called.
+     */
+    @Override
+    public void run() {
+        long lastFrame = 0;
+        while (running) {
+            if (latest.get().getFrame() <= lastFrame) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            replaying = latest.getAndSet(replaying);
+            lastFrame = replaying.getFrame();
+            DrawSurface d = gui.getDrawSurface();
+            replaying.replay(d);
+            gui.show(d);
+            shownFrames.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Game;
+
+/**
+ * Slab kernel that tests the candidates one by one, used when the vector API is not available.
+ */
+public class ScalarSlabKernel implements SlabKernel {
+
+    /**
+     * Computes the entry time of the cast segment into the bounds of every candidate.
+     *
+     * @param cast       the cast segment.
+     * @param candidates the candidates, with their (inflated) bounds.
+     * @param out        entry time of every candidate, SegmentCast.NO_HIT for the ones the segment misses.
+     * @return index of the candidate with the smallest entry time, or -1 if the segment misses all of them.
+     */
+    @Override
+    public int entryTimes(SegmentCast cast, CandidateBuffer candidates, double[] out) {
+        return entryTimes(cast, candidates, out, 0);
+    }
+
+    /**
+     * Computes the entry times of the candidates from a given index on, see entryTimes.
+     * the vector kernel uses this for the candidates that don't fill a whole vector.
+     *
+     * @param cast       the cast segment.
+     * @param candidates the candidates, with their (inflated) bounds.
+     * @param out        entry time of every candidate.
+     * @param from       index of the first candidate to test.
+     * @return index of the candidate from from on with the smallest entry time, or -1 if the segment misses them.
+     */
+    public int entryTimes(SegmentCast cast, CandidateBuffer candidates, double[] out, int from) {
+        double[] minXs = candidates.minXArray();
+        double[] minYs = candidates.minYArray();
+        double[] maxXs = candidates.maxXArray();
+        double[] maxYs = candidates.maxYArray();
+        int first = -1;
+        double firstTime = SegmentCast.NO_HIT;
+        for (int i = from; i < candidates.size(); i++) {
+            double t = cast.entryTime(minXs[i], minYs[i], maxXs[i], maxYs[i]);
+            out[i] = t;
+            if (t < firstTime) {
+                firstTime = t;
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * @return short name of the kernel, for reports.
+     */
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
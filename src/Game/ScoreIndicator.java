@@ -43,4 +43,24 @@ public class ScoreIndicator implements Sprite {
     public void timePassed() {
 
     }
+
+    /**
+     * The score is read when it is drawn, so the indicator is not notified that time passed.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean isActive() {
+        return false;
+    }
+
+    /**
+     * The score is drawn in the HUD layer, in front of everything else.
+     *
+     * @return SpriteLayer.HUD.
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.HUD;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,347 @@
+package Game;
+
+/**
+ * A trajectory segment of a circle's centre, prepared for repeated tests against boxes.
+ * the segment is stored as start + t * (dx, dy) for t between 0 and 1, with the inverse direction
+ * precomputed, so a box test (slab test) costs a few multiplications and no allocation.
+ * the exact test (sweep) casts the circle against a box, by casting its centre against the box inflated by
+ * the radius with rounded corners: the slab test finds the entry into the inflated box, and only entries
+ * in one of its corner squares need a ray against circle test.
+ */
+public class SegmentCast {
+    // fields
+    /**
+     * Value returned by the box tests when the segment misses the box.
+     */
+    public static final double NO_HIT = Double.POSITIVE_INFINITY;
+
+    /**
+     * Boxes are padded by this much, so points found by the epsilon based Geometry tests are never missed.
+     */
+    public static final double BOX_PADDING = 0.000001;
+
+    private double startX;
+    private double startY;
+    private double dx;
+    private double dy;
+    private double invDx;
+    private double invDy;
+    private double radius;
+
+    // sides and normal of the last hit found by sweep.
+    private int hitSides;
+    private double hitNormalX;
+    private double hitNormalY;
+
+    // Methods
+
+    /**
+     * Sets the segment of a point that is being cast.
+     *
+     * @param x1 x of the start point.
+     * @param y1 y of the start point.
+     * @param x2 x of the end point.
+     * @param y2 y of the end point.
+     */
+    public void set(double x1, double y1, double x2, double y2) {
+        set(x1, y1, x2, y2, 0);
+    }
+
+    /**
+     * Sets the segment of a circle's centre that is being cast.
+     *
+     * @param x1 x of the start point.
+     * @param y1 y of the start point.
+     * @param x2 x of the end point.
+     * @param y2 y of the end point.
+     * @param r  radius of the circle, 0 for a point.
+     */
+    public void set(double x1, double y1, double x2, double y2, double r) {
+        this.startX = x1;
+        this.startY = y1;
+        this.dx = x2 - x1;
+        this.dy = y2 - y1;
+        this.invDx = 1 / dx;
+        this.invDy = 1 / dy;
+        this.radius = Math.max(0, r);
+    }
+
+    /**
+     * @return x of the start point.
+     */
+    public double getStartX() {
+        return startX;
+    }
+
+    /**
+     * @return y of the start point.
+     */
+    public double getStartY() {
+        return startY;
+    }
+
+    /**
+     * @return x part of the segment's direction (end minus start).
+     */
+    public double getDx() {
+        return dx;
+    }
+
+    /**
+     * @return y part of the segment's direction (end minus start).
+     */
+    public double getDy() {
+        return dy;
+    }
+
+    /**
+     * @return 1 / getDx(), infinite for vertical segments.
+     */
+    public double getInvDx() {
+        return invDx;
+    }
+
+    /**
+     * @return 1 / getDy(), infinite for horizontal segments.
+     */
+    public double getInvDy() {
+        return invDy;
+    }
+
+    /**
+     * @return radius of the circle that is being cast.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * @param t a parameter of the segment.
+     * @return x of the centre at t.
+     */
+    public double xAt(double t) {
+        return startX + t * dx;
+    }
+
+    /**
+     * @param t a parameter of the segment.
+     * @return y of the centre at t.
+     */
+    public double yAt(double t) {
+        return startY + t * dy;
+    }
+
+    /**
+     * @return the sides hit by the last successful sweep (see Game.CollisionInfo).
+     */
+    public int getHitSides() {
+        return hitSides;
+    }
+
+    /**
+     * @return x part of the outward unit normal of the last successful sweep.
+     */
+    public double getHitNormalX() {
+        return hitNormalX;
+    }
+
+    /**
+     * @return y part of the outward unit normal of the last successful sweep.
+     */
+    public double getHitNormalY() {
+        return hitNormalY;
+    }
+
+    /**
+     * Returns the smallest parameter t in [0, 1] at which the segment is inside the given box.
+     * the exact intersection of the segment with the box's sides can't be found before this parameter,
+     * so it is a lower bound for it.
+     *
+     * @param left   left x of the box.
+     * @param top    top y of the box.
+     * @param right  right x of the box.
+     * @param bottom bottom y of the box.
+     * @return the entry parameter of the segment into the box, or NO_HIT if they don't meet.
+     */
+    public double entryTime(double left, double top, double right, double bottom) {
+        double tMin = 0;
+        double tMax = 1;
+
+        // x slab
+        if (dx == 0) {
+            if (startX < left - BOX_PADDING || startX > right + BOX_PADDING) {
+                return NO_HIT;
+            }
+        } else {
+            double t1 = (left - BOX_PADDING - startX) * invDx;
+            double t2 = (right + BOX_PADDING - startX) * invDx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // y slab
+        if (dy == 0) {
+            if (startY < top - BOX_PADDING || startY > bottom + BOX_PADDING) {
+                return NO_HIT;
+            }
+        } else {
+            double t1 = (top - BOX_PADDING - startY) * invDy;
+            double t2 = (bottom + BOX_PADDING - startY) * invDy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (tMin > tMax) {
+            return NO_HIT;
+        }
+        return tMin;
+    }
+
+    /**
+     * Casts the circle against a box, and finds the first parameter at which it touches the box.
+     * a circle that already touches the box at the start is hit at 0 if it moves towards the box, and never
+     * if it moves away from it. the sides and normal of the hit can be read afterwards.
+     *
+     * @param left   left x of the box.
+     * @param top    top y of the box.
+     * @param right  right x of the box.
+     * @param bottom bottom y of the box.
+     * @return the parameter of the first contact, or NO_HIT if there is none.
+     */
+    public double sweep(double left, double top, double right, double bottom) {
+        // the point of the box closest to the start.
+        double nearX = Math.max(left, Math.min(right, startX));
+        double nearY = Math.max(top, Math.min(bottom, startY));
+        double offX = startX - nearX;
+        double offY = startY - nearY;
+        double reach = radius + BOX_PADDING;
+        if (offX * offX + offY * offY <= reach * reach) {
+            return overlapHit(offX, offY, left, top, right, bottom);
+        }
+
+        // entry into the inflated box, not padded so that point hits land exactly on the sides.
+        double tx = NO_HIT;
+        double ty = NO_HIT;
+        double tMin = 0;
+        double tMax = 1;
+        if (dx == 0) {
+            if (startX < left - radius || startX > right + radius) {
+                return NO_HIT;
+            }
+        } else {
+            double t1 = (left - radius - startX) * invDx;
+            double t2 = (right + radius - startX) * invDx;
+            tx = Math.min(t1, t2);
+            tMin = Math.max(tMin, tx);
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (startY < top - radius || startY > bottom + radius) {
+                return NO_HIT;
+            }
+        } else {
+            double t1 = (top - radius - startY) * invDy;
+            double t2 = (bottom + radius - startY) * invDy;
+            ty = Math.min(t1, t2);
+            tMin = Math.max(tMin, ty);
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (tMin > tMax) {
+            return NO_HIT;
+        }
+
+        double hitX = xAt(tMin);
+        double hitY = yAt(tMin);
+        boolean beyondX = hitX < left || hitX > right;
+        boolean beyondY = hitY < top || hitY > bottom;
+        if (radius > 0 && beyondX && beyondY) {
+            // the entry is in a corner square, the shape there is a quarter circle around the box's corner.
+            return cornerHit(hitX < left ? left : right, hitY < top ? top : bottom);
+        }
+
+        if (radius == 0) {
+            // a point hit on a corner of the box hits both of its sides.
+            hitSides = CollisionInfo.sidesAt(hitX, hitY, left, top, right, bottom);
+        } else {
+            hitSides = CollisionInfo.NO_SIDE;
+        }
+        if (hitSides == CollisionInfo.NO_SIDE) {
+            if (tx >= ty) {
+                hitSides = dx > 0 ? CollisionInfo.LEFT : CollisionInfo.RIGHT;
+            } else {
+                hitSides = dy > 0 ? CollisionInfo.TOP : CollisionInfo.BOTTOM;
+            }
+        }
+        setNormalFromSides();
+        return tMin;
+    }
+
+    // a circle that touches the box at the start: hit at 0 if it moves towards the box, missed otherwise.
+    private double overlapHit(double offX, double offY, double left, double top, double right, double bottom) {
+        double normalX = offX;
+        double normalY = offY;
+        if (offX == 0 && offY == 0) {
+            // the centre is inside the box, push it out through the closest side.
+            double toLeft = startX - left;
+            double toRight = right - startX;
+            double toTop = startY - top;
+            double toBottom = bottom - startY;
+            double closest = Math.min(Math.min(toLeft, toRight), Math.min(toTop, toBottom));
+            if (closest == toLeft) {
+                normalX = -1;
+            } else if (closest == toRight) {
+                normalX = 1;
+            } else if (closest == toTop) {
+                normalY = -1;
+            } else {
+                normalY = 1;
+            }
+        }
+        if (normalX * dx + normalY * dy >= 0) {
+            return NO_HIT;
+        }
+        setHit(normalX, normalY);
+        return 0;
+    }
+
+    // ray against the circle of the given corner of the box.
+    private double cornerHit(double cornerX, double cornerY) {
+        double fx = startX - cornerX;
+        double fy = startY - cornerY;
+        double a = dx * dx + dy * dy;
+        double b = fx * dx + fy * dy;
+        double c = fx * fx + fy * fy - radius * radius;
+        double discriminant = b * b - a * c;
+        if (a == 0 || discriminant < 0) {
+            return NO_HIT;
+        }
+        // the start is outside the circle, so both roots have the same sign: negative ones are behind it.
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        if (t < 0 || t > 1) {
+            return NO_HIT;
+        }
+        setHit(xAt(t) - cornerX, yAt(t) - cornerY);
+        return t;
+    }
+
+    // stores a hit of the given outward normal (not unit), and the sides the circle moves into.
+    private void setHit(double normalX, double normalY) {
+        double length = Math.sqrt(normalX * normalX + normalY * normalY);
+        hitNormalX = normalX / length;
+        hitNormalY = normalY / length;
+
+        int sides = CollisionInfo.NO_SIDE;
+        if (hitNormalX * dx < 0) {
+            sides |= hitNormalX < 0 ? CollisionInfo.LEFT : CollisionInfo.RIGHT;
+        }
+        if (hitNormalY * dy < 0) {
+            sides |= hitNormalY < 0 ? CollisionInfo.TOP : CollisionInfo.BOTTOM;
+        }
+        hitSides = sides;
+    }
+
+    private void setNormalFromSides() {
+        hitNormalX = CollisionInfo.normalPart(hitSides, CollisionInfo.RIGHT, CollisionInfo.LEFT);
+        hitNormalY = CollisionInfo.normalPart(hitSides, CollisionInfo.BOTTOM, CollisionInfo.TOP);
+    }
+}
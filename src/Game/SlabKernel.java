@@ -0,0 +1,51 @@
+package Game;
+
+/**
+ * Narrowphase kernel that runs the slab test of one cast segment against every buffered candidate at once.
+ * the entry time of candidate i is the same value SegmentCast.entryTime gives for its bounds.
+ * the vector (SIMD) kernel is used when the jdk.incubator.vector module is available, and the scalar one
+ * otherwise.
+ */
+public interface SlabKernel {
+
+    /**
+     * Name of the system property that turns the vector kernel off when set to false.
+     */
+    String PROPERTY = "game.simd";
+
+    /**
+     * Computes the entry time of the cast segment into the bounds of every candidate.
+     *
+     * @param cast       the cast segment.
+     * @param candidates the candidates, with their (inflated) bounds.
+     * @param out        entry time of every candidate, SegmentCast.NO_HIT for the ones the segment misses.
+     *                   must hold at least candidates.size() values.
+     * @return index of the candidate with the smallest entry time (the first one on ties), or -1 if the segment
+     * misses all of them.
+     */
+    int entryTimes(SegmentCast cast, CandidateBuffer candidates, double[] out);
+
+    /**
+     * @return short name of the kernel, for reports.
+     */
+    String getName();
+
+    /**
+     * Creates the fastest kernel available: the vector kernel, unless the game.simd system property is false
+     * or the jdk.incubator.vector module was not added to the JVM (--add-modules jdk.incubator.vector).
+     *
+     * @return a slab kernel.
+     */
+    static SlabKernel create() {
+        if (!"false".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+            try {
+                // loaded by name, so this class links without the incubator module.
+                return (SlabKernel) Class.forName("Game.VectorSlabKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // the vector API is not available, use scalar code.
+                return new ScalarSlabKernel();
+            }
+        }
+        return new ScalarSlabKernel();
+    }
+}
@@ -17,8 +17,39 @@ public interface Sprite {
      */
     void drawOn(DrawSurface d);
 
+    /**
+     * Draws sprite on given drawSurface at the given level of detail (see Game.RenderQualityGovernor).
+     * by default the sprite is drawn as it always is, sprites with optional detail override it.
+     *
+     * @param d       drawSurface to draw on.
+     * @param quality level of detail to draw at.
+     */
+    default void drawOn(DrawSurface d, RenderQuality quality) {
+        drawOn(d);
+    }
+
     /**
      * Notify the sprite that time has passed.
      */
     void timePassed();
+
+    /**
+     * Tells if the sprite does anything when time passes. sprites that are not active are only drawn, they are
+     * not notified that time passed until they are woken (see Game.SpriteCollection.wake).
+     * an active sprite that becomes inactive during timePassed is put to sleep after it.
+     *
+     * @return true if the sprite should be notified that time passed, false otherwise.
+     */
+    default boolean isActive() {
+        return true;
+    }
+
+    /**
+     * Returns the layer the sprite is drawn in when it is added without one (see Game.SpriteLayer).
+     *
+     * @return the default layer of the sprite.
+     */
+    default SpriteLayer getLayer() {
+        return SpriteLayer.DYNAMIC;
+    }
 }
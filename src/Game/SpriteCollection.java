@@ -1,16 +1,59 @@
 package Game;
 
+import Geometry.Ball;
 import biuoop.DrawSurface;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * a class that holds collection of sprites and can operate actions on them.
+ * the sprites are kept in separate layers (see Game.SpriteLayer) that are drawn from the back to the front, so
+ * the drawing order doesn't depend on the order sprites were added in. each layer mostly holds one type of
+ * sprite and is drawn by its own loop, and a layer can be hidden as a unit.
+ * all the visible sprites are drawn, but only the active ones (balls, paddles, animations) are notified that
+ * time passed, so the many static sprites (blocks, background, score) cost nothing in the update phase.
+ * drawn through a Game.Camera, the static blocks are looked up by the viewport in a Game.GridCollisionEngine
+ * and the dynamic sprites outside it are skipped, so only what the camera sees is drawn however large the world
+ * is.
+ * sprites are drawn at the collection's Game.RenderQuality, which a Game.RenderQualityGovernor lowers when
+ * frames are over budget.
  */
 public class SpriteCollection {
+    // constants
+    private static final double GRID_CELL_SIZE = 128;
+    // name the recorder counts the rectangles of merged blocks under.
+    private static final String MERGED_FILLS = "merged blocks";
+
     //fields
-    private final List<Sprite> allSprites;
+    private final List<Sprite> background = new ArrayList<>();
+    private final List<Sprite> staticBlocks = new ArrayList<>();
+    private final List<Sprite> dynamic = new ArrayList<>();
+    private final List<Sprite> hud = new ArrayList<>();
+    private final boolean[] visible = new boolean[SpriteLayer.values().length];
+    private final Map<Sprite, SpriteLayer> layerOf = new IdentityHashMap<>();
+    private final List<Sprite> activeSprites = new ArrayList<>();
+    // active sprites, to true for the ones woken with wake, that stay active until sleep is called.
+    private final Map<Sprite, Boolean> activeSet = new IdentityHashMap<>();
+    private final List<Sprite> ticking = new ArrayList<>();
+    // static sprites by slot, in the order they were added (removed ones leave holes until the slots are
+    // rebuilt). the ones with bounds are indexed by slot in a collision engine, the others are always drawn.
+    private CollisionEngine staticIndex = new GridCollisionEngine(GRID_CELL_SIZE);
+    private final CandidateBuffer visibleCandidates = new CandidateBuffer();
+    private final Map<Sprite, Integer> staticSlotOf = new IdentityHashMap<>();
+    private final IntList unindexedSlots = new IntList();
+    private Sprite[] staticSlots = new Sprite[64];
+    private int[] drawStamps = new int[64];
+    private int staticSlotCount = 0;
+    private int drawStamp = 0;
+    private final CameraSurface cameraSurface = new CameraSurface();
+    private final BlockMerger merger = new BlockMerger();
+    private RenderQuality quality = RenderQuality.FULL;
+    private DrawRecorder recorder = null;
 
     //constructors
 
@@ -18,27 +61,47 @@ public class SpriteCollection {
      * Create a new sprite collection.
      */
     public SpriteCollection() {
-        allSprites = new ArrayList<Sprite>();
+        Arrays.fill(visible, true);
     }
 
     /**
-     * Create a new sprite collection with given sprites list.
+     * Create a new sprite collection with given sprites list, each sprite in its default layer.
      *
      * @param sprites sprites list.
      */
     public SpriteCollection(List<Sprite> sprites) {
-        allSprites = new ArrayList<Sprite>(sprites);
+        this();
+        for (Sprite s : sprites) {
+            addSprite(s);
+        }
     }
 
     //Methods
 
     /**
-     * Add given sprite to collection.
+     * Add given sprite to collection, in its default layer.
      *
      * @param s sprite to add.
      */
     public void addSprite(Sprite s) {
-        allSprites.add(s);
+        addSprite(s, s.getLayer());
+    }
+
+    /**
+     * Add given sprite to the given layer of the collection, in front of the sprites already in the layer.
+     *
+     * @param s     sprite to add.
+     * @param layer layer to draw the sprite in.
+     */
+    public void addSprite(Sprite s, SpriteLayer layer) {
+        layerList(layer).add(s);
+        layerOf.put(s, layer);
+        if (layer == SpriteLayer.STATIC_BLOCKS) {
+            index(s);
+        }
+        if (s.isActive()) {
+            activate(s, false);
+        }
     }
 
     /**
@@ -47,28 +110,360 @@ public class SpriteCollection {
      * @param s sprite to remove
      */
     public void removeSprite(Sprite s) {
-        allSprites.remove(s);
+        SpriteLayer layer = layerOf.remove(s);
+        if (layer != null) {
+            layerList(layer).remove(s);
+            if (layer == SpriteLayer.STATIC_BLOCKS) {
+                unindex(s);
+            }
+        }
+        sleep(s);
+    }
+
+    /**
+     * @param s a sprite.
+     * @return the layer the sprite is drawn in, null if it is not in the collection.
+     */
+    public SpriteLayer getLayerOf(Sprite s) {
+        return layerOf.get(s);
+    }
+
+    /**
+     * Shows or hides a whole layer, hidden layers are not drawn but their sprites are still notified.
+     *
+     * @param layer   the layer.
+     * @param visible true to draw the layer, false to skip it.
+     */
+    public void setLayerVisible(SpriteLayer layer, boolean visible) {
+        this.visible[layer.ordinal()] = visible;
+    }
+
+    /**
+     * @param layer a layer.
+     * @return true if the layer is drawn, false otherwise.
+     */
+    public boolean isLayerVisible(SpriteLayer layer) {
+        return visible[layer.ordinal()];
+    }
+
+    /**
+     * @param layer a layer.
+     * @return read-only list of the sprites of the layer, from the back to the front.
+     */
+    public List<Sprite> getSprites(SpriteLayer layer) {
+        return Collections.unmodifiableList(layerList(layer));
+    }
+
+    /**
+     * Starts notifying a sprite of the collection that time passed, until sleep is called for it, even while its
+     * isActive returns false.
+     *
+     * @param s sprite to wake.
+     */
+    public void wake(Sprite s) {
+        activate(s, true);
+    }
+
+    /**
+     * Stops notifying a sprite that time passed, it is still drawn.
+     *
+     * @param s sprite to put to sleep.
+     */
+    public void sleep(Sprite s) {
+        if (activeSet.remove(s) != null) {
+            activeSprites.remove(s);
+        }
+    }
+
+    // adds a sprite to the active ones, woken sprites are not put to sleep when they stop being active.
+    private void activate(Sprite s, boolean woken) {
+        Boolean wasWoken = activeSet.put(s, woken);
+        if (wasWoken == null) {
+            activeSprites.add(s);
+        } else if (wasWoken) {
+            activeSet.put(s, true);
+        }
+    }
+
+    /**
+     * Sets the level of detail the sprites are drawn at from now on.
+     *
+     * @param quality the level of detail.
+     */
+    public void setQuality(RenderQuality quality) {
+        this.quality = quality;
+    }
+
+    /**
+     * @return the level of detail the sprites are drawn at.
+     */
+    public RenderQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Sets the recorder that is told which sprite draws, so it can count the drawing commands of every sprite
+     * type. draw on the recorder itself for the counts to be recorded.
+     *
+     * @param recorder the recorder, null for none.
+     */
+    public void setRecorder(DrawRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return number of sprites in the collection.
+     */
+    public int size() {
+        return layerOf.size();
+    }
+
+    /**
+     * @return number of sprites that are notified that time passed.
+     */
+    public int activeCount() {
+        return activeSprites.size();
     }
 
 
     /**
-     * Call timePassed() on all sprites, if any sprite should do something linear with time, it will do it.
+     * Call timePassed() on all active sprites, if any sprite should do something linear with time, it will do it.
+     * sprites that are no longer active afterwards are put to sleep, unless they were woken with wake.
      */
     public void notifyAllTimePassed() {
-        List<Sprite> listCopy = new ArrayList<>(allSprites);
-        for (Sprite curSprite : listCopy) {
+        // sprites may add or remove sprites while they are notified.
+        ticking.addAll(activeSprites);
+        for (Sprite curSprite : ticking) {
             curSprite.timePassed();
+            if (!curSprite.isActive() && Boolean.FALSE.equals(activeSet.get(curSprite))) {
+                sleep(curSprite);
+            }
         }
+        ticking.clear();
     }
 
     /**
-     * Draw all sprites on given draw surface.
+     * Draw all sprites of the visible layers on given draw surface, from the back layer to the front one.
      *
      * @param d draw surface to draw sprites on.
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite curSprite : allSprites) {
-            curSprite.drawOn(d);
+        // one loop per layer, so every loop mostly sees a single type of sprite.
+        if (visible[SpriteLayer.BACKGROUND.ordinal()]) {
+            for (Sprite curSprite : background) {
+                mark(curSprite);
+                curSprite.drawOn(d, quality);
+            }
+        }
+        if (visible[SpriteLayer.STATIC_BLOCKS.ordinal()]) {
+            for (Sprite curSprite : staticBlocks) {
+                drawStatic(curSprite, d);
+            }
+            flushMerged(d);
+        }
+        if (visible[SpriteLayer.DYNAMIC.ordinal()]) {
+            for (Sprite curSprite : dynamic) {
+                mark(curSprite);
+                curSprite.drawOn(d, quality);
+            }
+        }
+        if (visible[SpriteLayer.HUD.ordinal()]) {
+            for (Sprite curSprite : hud) {
+                mark(curSprite);
+                curSprite.drawOn(d, quality);
+            }
+        }
+    }
+
+    /**
+     * Draw the sprites of the visible layers that the camera sees, from the back layer to the front one.
+     * the background and HUD layers are drawn in screen coordinates, as they are. the static blocks and dynamic
+     * layers are in world coordinates: they are shifted by the camera, and sprites outside the viewport are not
+     * drawn. static blocks are assumed not to move while they are in the collection.
+     *
+     * @param d      draw surface to draw sprites on.
+     * @param camera the camera.
+     */
+    public void drawAllOn(DrawSurface d, Camera camera) {
+        double minX = camera.getMinX();
+        double minY = camera.getMinY();
+        double maxX = camera.getMaxX();
+        double maxY = camera.getMaxY();
+        if (visible[SpriteLayer.BACKGROUND.ordinal()]) {
+            for (Sprite curSprite : background) {
+                mark(curSprite);
+                curSprite.drawOn(d, quality);
+            }
+        }
+        DrawSurface world = cameraSurface.wrap(d, camera);
+        if (visible[SpriteLayer.STATIC_BLOCKS.ordinal()]) {
+            nextDrawStamp();
+            staticIndex.query(minX, minY, maxX, maxY, 0, visibleCandidates);
+            int first = staticSlotCount;
+            int last = -1;
+            for (int i = 0; i < visibleCandidates.size(); i++) {
+                int slot = visibleCandidates.getOrder(i);
+                drawStamps[slot] = drawStamp;
+                first = Math.min(first, slot);
+                last = Math.max(last, slot);
+            }
+            visibleCandidates.clear();
+            for (int i = 0; i < unindexedSlots.size(); i++) {
+                int slot = unindexedSlots.get(i);
+                drawStamps[slot] = drawStamp;
+                first = Math.min(first, slot);
+                last = Math.max(last, slot);
+            }
+            // walk the stamped slots in order, so the sprites keep the order they were added in without a sort.
+            for (int slot = first; slot <= last; slot++) {
+                if (drawStamps[slot] != drawStamp) {
+                    continue;
+                }
+                Sprite curSprite = staticSlots[slot];
+                if (curSprite instanceof CullableSprite) {
+                    flushMerged(world);
+                    mark(curSprite);
+                    ((CullableSprite) curSprite).drawOn(world, quality, minX, minY, maxX, maxY);
+                } else {
+                    drawStatic(curSprite, world);
+                }
+            }
+            flushMerged(world);
+        }
+        if (visible[SpriteLayer.DYNAMIC.ordinal()]) {
+            for (Sprite curSprite : dynamic) {
+                drawCulled(curSprite, world, camera);
+            }
+        }
+        if (visible[SpriteLayer.HUD.ordinal()]) {
+            for (Sprite curSprite : hud) {
+                mark(curSprite);
+                curSprite.drawOn(d, quality);
+            }
+        }
+    }
+
+    // tells the recorder, if there is one, which sprite draws next.
+    private void mark(Sprite s) {
+        if (recorder != null) {
+            recorder.beginSprite(s);
+        }
+    }
+
+    // draws a static sprite, at MERGED blocks go through the merger (flush it after the layer).
+    private void drawStatic(Sprite s, DrawSurface d) {
+        if (quality == RenderQuality.MERGED && s instanceof Block) {
+            Block b = (Block) s;
+            // adding a block draws the rectangle of the blocks before it, if any.
+            markMerged();
+            merger.add(d, b.getMinX(), b.getMinY(), b.getWidth(), b.getHeight(), b.getStyle().getFill());
+            return;
+        }
+        flushMerged(d);
+        mark(s);
+        s.drawOn(d, quality);
+    }
+
+    // draws the pending merged rectangle, counted as merged fills rather than as the fill of any one block.
+    private void flushMerged(DrawSurface d) {
+        if (quality == RenderQuality.MERGED) {
+            markMerged();
+            merger.flush(d);
+        }
+    }
+
+    private void markMerged() {
+        if (recorder != null) {
+            recorder.beginType(MERGED_FILLS);
+        }
+    }
+
+    // draws a world sprite if the camera sees it, or only the parts the camera sees.
+    private void drawCulled(Sprite s, DrawSurface d, Camera camera) {
+        mark(s);
+        if (s instanceof CullableSprite) {
+            ((CullableSprite) s).drawOn(d, quality, camera.getMinX(), camera.getMinY(), camera.getMaxX(),
+                    camera.getMaxY());
+            return;
+        }
+        if (s instanceof Collidable) {
+            Collidable c = (Collidable) s;
+            if (!camera.isVisible(c.getMinX(), c.getMinY(), c.getMaxX(), c.getMaxY())) {
+                return;
+            }
+        } else if (s instanceof Ball) {
+            Ball b = (Ball) s;
+            double r = b.getSize();
+            if (!camera.isVisible(b.getCenterX() - r, b.getCenterY() - r, b.getCenterX() + r, b.getCenterY() + r)) {
+                return;
+            }
+        }
+        s.drawOn(d, quality);
+    }
+
+    // gives a static sprite the next slot, and puts it in the index if it has known bounds.
+    private void index(Sprite s) {
+        if (staticSlotCount == staticSlots.length) {
+            staticSlots = Arrays.copyOf(staticSlots, 2 * staticSlotCount);
+            drawStamps = Arrays.copyOf(drawStamps, 2 * staticSlotCount);
+        }
+        int slot = staticSlotCount++;
+        staticSlots[slot] = s;
+        staticSlotOf.put(s, slot);
+        if (isIndexed(s)) {
+            staticIndex.add((Collidable) s, slot);
+        } else {
+            unindexedSlots.add(slot);
+        }
+    }
+
+    // frees the slot of a static sprite, and rebuilds the slots once half of them are free.
+    private void unindex(Sprite s) {
+        Integer slot = staticSlotOf.remove(s);
+        if (slot == null) {
+            return;
+        }
+        staticSlots[slot] = null;
+        if (isIndexed(s)) {
+            staticIndex.remove((Collidable) s);
+        } else {
+            unindexedSlots.removeValue(slot);
+        }
+        if (staticSlotCount > 64 && 2 * staticSlotOf.size() < staticSlotCount) {
+            staticIndex = new GridCollisionEngine(GRID_CELL_SIZE);
+            unindexedSlots.clear();
+            staticSlotOf.clear();
+            Arrays.fill(staticSlots, 0, staticSlotCount, null);
+            staticSlotCount = 0;
+            for (Sprite curSprite : staticBlocks) {
+                index(curSprite);
+            }
+        }
+    }
+
+    // static sprites with bounds are found by the index, the others (stores of blocks) are always drawn.
+    private static boolean isIndexed(Sprite s) {
+        return s instanceof Collidable && !(s instanceof CullableSprite);
+    }
+
+    private void nextDrawStamp() {
+        drawStamp++;
+        if (drawStamp == 0) {
+            Arrays.fill(drawStamps, 0);
+            drawStamp = 1;
+        }
+    }
+
+    private List<Sprite> layerList(SpriteLayer layer) {
+        switch (layer) {
+            case BACKGROUND:
+                return background;
+            case STATIC_BLOCKS:
+                return staticBlocks;
+            case HUD:
+                return hud;
+            default:
+                return dynamic;
         }
     }
 }
@@ -0,0 +1,27 @@
+package Game;
+
+/**
+ * Drawing layers of the sprites of the game, from the back to the front.
+ * every layer is drawn after the layers before it, whatever the order its sprites were added in.
+ */
+public enum SpriteLayer {
+    /**
+     * Backgrounds, drawn first.
+     */
+    BACKGROUND,
+
+    /**
+     * Blocks and stores of blocks, that don't move.
+     */
+    STATIC_BLOCKS,
+
+    /**
+     * Balls, paddles and every other sprite that moves or animates.
+     */
+    DYNAMIC,
+
+    /**
+     * Score and other indicators, drawn last.
+     */
+    HUD
+}
@@ -0,0 +1,277 @@
+package Game;
+
+import Geometry.Ball;
+import Geometry.Point;
+import Geometry.ReadOnlyRectangle;
+import Geometry.Rectangle;
+
+import java.awt.Color;
+
+/**
+ * View (flyweight) of one block of a Game.BlockStore.
+ * the view has no state of its own beyond its store and id, every getter and setter reads or writes the
+ * block's record in the store. it collides, bounces and notifies like any other block, and is what the hit
+ * listeners of the store receive as the block that was hit. listeners added to the view are kept by the store
+ * and only notified of hits on its block, so they stay when the view is dropped. views of the same block are
+ * equal.
+ */
+public class StoredBlock extends Block {
+    // fields
+    private final BlockStore store;
+    private final int id;
+    private Rectangle bounds = null;
+    private int boundsVersion = 0;
+
+    // constructor
+
+    /**
+     * Creates the view of a block, views are created by BlockStore.view.
+     *
+     * @param store the store that holds the block.
+     * @param id    id of the block in the store.
+     */
+    StoredBlock(BlockStore store, int id) {
+        super();
+        this.store = store;
+        this.id = id;
+    }
+
+    // Methods
+
+    /**
+     * @return the store that holds the block.
+     */
+    public BlockStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return id of the block in its store.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the color of the block in the store.
+     *
+     * @param color the color to set
+     */
+    @Override
+    public void setColor(Color color) {
+        store.setColor(id, color);
+        if (bounds != null) {
+            bounds.setColor(color);
+        }
+    }
+
+    /**
+     * Moves the block in the store.
+     *
+     * @param upperLeft the new upper-left point
+     */
+    @Override
+    public void setUpperLeft(Point upperLeft) {
+        store.setPosition(id, upperLeft.getX(), upperLeft.getY());
+    }
+
+    /**
+     * Moves the block in the store.
+     *
+     * @param x the x-coordinate of the upper-left point
+     * @param y the y-coordinate of the upper-left point
+     */
+    @Override
+    public void setUpperLeft(double x, double y) {
+        store.setPosition(id, x, y);
+    }
+
+    /**
+     * @return width of the block.
+     */
+    @Override
+    public double getWidth() {
+        return store.getWidth(id);
+    }
+
+    /**
+     * @return height of the block.
+     */
+    @Override
+    public double getHeight() {
+        return store.getHeight(id);
+    }
+
+    /**
+     * @return a copy of the top-left point of the block.
+     */
+    @Override
+    public Point getUpperLeft() {
+        return new Point(store.getMinX(id), store.getMinY(id));
+    }
+
+    /**
+     * @return color of the block.
+     */
+    @Override
+    public Color getColor() {
+        return store.getColor(id);
+    }
+
+    /**
+     * @return shared style of the block.
+     */
+    @Override
+    public BlockStyle getStyle() {
+        return store.getStyle(id);
+    }
+
+    /**
+     * Sets the style of the block in the store.
+     *
+     * @param style the style to set.
+     */
+    @Override
+    public void setStyle(BlockStyle style) {
+        store.setStyle(id, style);
+        if (bounds != null) {
+            bounds.setColor(style.getFill());
+        }
+    }
+
+    /**
+     * Add hl to the listeners of hits on this block, the store keeps it.
+     *
+     * @param hl hit listener to add
+     */
+    @Override
+    public void addHitListener(HitListener hl) {
+        store.addHitListener(id, hl);
+    }
+
+    /**
+     * Remove hl from the listeners of hits on this block.
+     *
+     * @param hl hit listener to remove
+     */
+    @Override
+    public void removeHitListener(HitListener hl) {
+        store.removeHitListener(id, hl);
+    }
+
+    /**
+     * Notifies the hit listeners of the store, then the block's own listeners, that the block was hit.
+     *
+     * @param hitter the ball that hit the block.
+     */
+    @Override
+    protected void notifyHit(Ball hitter) {
+        store.notifyHit(this, hitter);
+    }
+
+    /**
+     * Views are equal when they are views of the same block of the same store.
+     *
+     * @param other object to compare to.
+     * @return true if other is a view of the same block.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StoredBlock)) {
+            return false;
+        }
+        StoredBlock view = (StoredBlock) other;
+        return view.store == store && view.id == id;
+    }
+
+    /**
+     * @return hash code of the block's id and store.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + id;
+    }
+
+    /**
+     * Returns the bounds of the block as a read-only rectangle. the rectangle is kept by the view and only
+     * updated when the block moved or changed color, so asking for it allocates nothing. changes made through
+     * the store rather than the view show in it the next time it is asked for.
+     *
+     * @return read-only Geometry.Rectangle with the current bounds of the block.
+     */
+    @Override
+    public ReadOnlyRectangle getCollisionRectangle() {
+        int version = store.getVersion(id);
+        if (bounds == null) {
+            bounds = new Rectangle(store.getMinX(id), store.getMinY(id), getWidth(), getHeight(), getColor());
+        } else if (boundsVersion != version) {
+            bounds.setUpperLeft(store.getMinX(id), store.getMinY(id));
+        }
+        boundsVersion = version;
+        if (!bounds.getColor().equals(getColor())) {
+            bounds.setColor(getColor());
+        }
+        return bounds.readOnlyView();
+    }
+
+    /**
+     * @return left x of the block.
+     */
+    @Override
+    public double getMinX() {
+        return store.getMinX(id);
+    }
+
+    /**
+     * @return top y of the block.
+     */
+    @Override
+    public double getMinY() {
+        return store.getMinY(id);
+    }
+
+    /**
+     * @return right x of the block.
+     */
+    @Override
+    public double getMaxX() {
+        return store.getMaxX(id);
+    }
+
+    /**
+     * @return bottom y of the block.
+     */
+    @Override
+    public double getMaxY() {
+        return store.getMaxY(id);
+    }
+
+    /**
+     * @return counter that changes whenever the block moves.
+     */
+    @Override
+    public int getBoundsVersion() {
+        return store.getVersion(id);
+    }
+
+    /**
+     * Removes the block from its store, so it is no longer drawn or hit.
+     *
+     * @param game game the store was added to.
+     */
+    @Override
+    public void removeFromGame(Game game) {
+        store.remove(id);
+    }
+
+    /**
+     * Brings the block back to its store if it was removed, the store must have been added to the game (see
+     * Game.addBlockStore).
+     *
+     * @param game game the store was added to.
+     */
+    @Override
+    public void addToGame(Game game) {
+        game.addStoredBlock(this);
+    }
+}
@@ -0,0 +1,67 @@
+package Game;
+
+/**
+ * Collision engine over a dense tile map that covers a fixed world rectangle from (0, 0).
+ * cells are kept in a flat array, so looking a cell up costs no hashing. collidables outside the
+ * world are listed in the tiles of its edges.
+ */
+public class TileMapCollisionEngine extends CellCollisionEngine {
+    // fields
+    private final int columns;
+    private final int rows;
+    private final IntList[] tiles;
+
+    // constructor
+
+    /**
+     * Creates an empty tile map covering a world of the given size.
+     *
+     * @param worldWidth  width of the world.
+     * @param worldHeight height of the world.
+     * @param tileWidth   width of a tile.
+     * @param tileHeight  height of a tile.
+     */
+    public TileMapCollisionEngine(double worldWidth, double worldHeight, double tileWidth, double tileHeight) {
+        super(tileWidth, tileHeight);
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth / tileWidth));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / tileHeight));
+        this.tiles = new IntList[columns * rows];
+    }
+
+    // Methods
+
+    /**
+     * Returns the list of slots of a tile.
+     *
+     * @param cellX  column of the tile.
+     * @param cellY  row of the tile.
+     * @param create true to create the tile's list if it doesn't exist.
+     * @return the list of slots in the tile, or null if it doesn't exist and create is false.
+     */
+    @Override
+    protected IntList getCell(int cellX, int cellY, boolean create) {
+        int index = cellY * columns + cellX;
+        if (tiles[index] == null && create) {
+            tiles[index] = new IntList();
+        }
+        return tiles[index];
+    }
+
+    /**
+     * @param cellX a column.
+     * @return the nearest column of the map.
+     */
+    @Override
+    protected int clampCellX(int cellX) {
+        return Math.max(0, Math.min(columns - 1, cellX));
+    }
+
+    /**
+     * @param cellY a row.
+     * @return the nearest row of the map.
+     */
+    @Override
+    protected int clampCellY(int cellY) {
+        return Math.max(0, Math.min(rows - 1, cellY));
+    }
+}
@@ -0,0 +1,510 @@
+package Game;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draw surface that rasterises a frame on many threads: the frame is split into square tiles, every drawing
+ * command is recorded once and binned into the tiles its bounds overlap, and render then draws the tiles in
+ * parallel on a fork-join pool, each on its own view of a Game.FrameBufferSurface clipped to the tile.
+ * a tile replays its commands in the order they were drawn, and every pixel belongs to one tile, so the frame is
+ * the same, pixel for pixel, as drawing the commands on the surface on one thread.
+ * the frame buffer draws text in a small bitmap font. with deferred text, texts are left out of the tiles and
+ * drawn by drawDeferredText on another surface (the window) after the frame, in that surface's font.
+ */
+public class TiledRasterizer implements DrawSurface {
+    // constants
+
+    /**
+     * Name of the system property that draws the game's frames with a tiled rasteriser ("true").
+     */
+    public static final String PROPERTY = "game.tiledRaster";
+
+    /**
+     * Default size of the tiles, in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 128;
+
+    // opcodes
+    private static final int DRAW_LINE = 0;
+    private static final int DRAW_OVAL = 1;
+    private static final int FILL_OVAL = 2;
+    private static final int DRAW_RECTANGLE = 3;
+    private static final int FILL_RECTANGLE = 4;
+    private static final int DRAW_IMAGE = 5;
+    private static final int DRAW_CIRCLE = 6;
+    private static final int FILL_CIRCLE = 7;
+    private static final int DRAW_TEXT = 8;
+    private static final int DRAW_POLYGON = 9;
+    private static final int FILL_POLYGON = 10;
+
+    // a command is its opcode, four int arguments, the index of its color and the index of its object.
+    private static final int STRIDE = 7;
+
+    // fields
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int columns;
+    private final int rows;
+    private final IntList[] bins;
+    private final ForkJoinPool pool;
+    private int[] commands = new int[STRIDE * 256];
+    private Object[] objects = new Object[64];
+    private int commandCount = 0;
+    private int objectCount = 0;
+    private int color = -1;
+    private boolean deferText = false;
+    private final IntList texts = new IntList();
+    private FrameBufferSurface target = null;
+    private FrameBufferSurface[] views = null;
+
+    // constructor
+
+    /**
+     * Creates a rasteriser for frames of the given size.
+     *
+     * @param width    width of the frames.
+     * @param height   height of the frames.
+     * @param tileSize size of the tiles, in pixels.
+     * @param pool     the pool the tiles are drawn on.
+     */
+    public TiledRasterizer(int width, int height, int tileSize, ForkJoinPool pool) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("tile size must be positive: " + tileSize);
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.columns = (width + tileSize - 1) / tileSize;
+        this.rows = (height + tileSize - 1) / tileSize;
+        this.bins = new IntList[columns * rows];
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = new IntList();
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a rasteriser with tiles of DEFAULT_TILE_SIZE, drawing on the common fork-join pool.
+     *
+     * @param width  width of the frames.
+     * @param height height of the frames.
+     */
+    public TiledRasterizer(int width, int height) {
+        this(width, height, DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    // Methods
+
+    /**
+     * Checks the game.tiledRaster system property.
+     *
+     * @return true if the game should draw its frames with a tiled rasteriser, false otherwise.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Removes the recorded commands, to record a new frame.
+     */
+    public void reset() {
+        for (IntList bin : bins) {
+            bin.clear();
+        }
+        texts.clear();
+        Arrays.fill(objects, 0, objectCount, null);
+        commandCount = 0;
+        objectCount = 0;
+        color = -1;
+    }
+
+    /**
+     * Sets whether texts are drawn in the tiles (the default) or left for drawDeferredText.
+     *
+     * @param deferred true to leave texts out of the tiles.
+     */
+    public void setDeferText(boolean deferred) {
+        this.deferText = deferred;
+    }
+
+    /**
+     * Draws the texts of the recorded frame that were left out of the tiles, in the order they were recorded.
+     * draw the rendered frame on the surface first, the texts go on top of it.
+     *
+     * @param d the surface to draw the texts on.
+     */
+    public void drawDeferredText(DrawSurface d) {
+        int currentColor = -2;
+        for (int i = 0; i < texts.size(); i++) {
+            int base = texts.get(i) * STRIDE;
+            if (commands[base + 5] != currentColor) {
+                currentColor = commands[base + 5];
+                d.setColor(currentColor < 0 ? Color.BLACK : (Color) objects[currentColor]);
+            }
+            d.drawText(commands[base + 1], commands[base + 2], (String) objects[commands[base + 6]],
+                    commands[base + 3]);
+        }
+    }
+
+    /**
+     * Draws the recorded frame on a surface of the rasteriser's size, the tiles in parallel.
+     *
+     * @param surface the surface to draw on.
+     */
+    public void render(FrameBufferSurface surface) {
+        if (surface.getWidth() != width || surface.getHeight() != height) {
+            throw new IllegalArgumentException("surface is " + surface.getWidth() + "x" + surface.getHeight()
+                    + ", frames are " + width + "x" + height);
+        }
+        if (surface != target) {
+            target = surface;
+            views = new FrameBufferSurface[bins.length];
+            for (int tile = 0; tile < bins.length; tile++) {
+                views[tile] = surface.view();
+                int column = tile % columns;
+                int row = tile / columns;
+                views[tile].setClip(column * tileSize, row * tileSize, tileSize, tileSize);
+            }
+        }
+        pool.invoke(new TileTask(0, bins.length));
+    }
+
+    /**
+     * @return number of recorded drawing commands.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * @return number of tiles.
+     */
+    public int getTileCount() {
+        return bins.length;
+    }
+
+    /**
+     * @return width of the frames.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the frames.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the color of the next commands.
+     *
+     * @param c the color.
+     */
+    @Override
+    public void setColor(Color c) {
+        color = object(c);
+    }
+
+    /**
+     * Records a line.
+     *
+     * @param x1 x of the start.
+     * @param y1 y of the start.
+     * @param x2 x of the end.
+     * @param y2 y of the end.
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        record(DRAW_LINE, x1, y1, x2, y2, -1);
+        bin(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2) + 1, Math.max(y1, y2) + 1);
+    }
+
+    /**
+     * Records an oval outline.
+     *
+     * @param x          left x of the bounds.
+     * @param y          top y of the bounds.
+     * @param ovalWidth  width of the bounds.
+     * @param ovalHeight height of the bounds.
+     */
+    @Override
+    public void drawOval(int x, int y, int ovalWidth, int ovalHeight) {
+        record(DRAW_OVAL, x, y, ovalWidth, ovalHeight, -1);
+        bin(x, y, x + ovalWidth + 1, y + ovalHeight + 1);
+    }
+
+    /**
+     * Records a filled oval.
+     *
+     * @param x          left x of the bounds.
+     * @param y          top y of the bounds.
+     * @param ovalWidth  width of the bounds.
+     * @param ovalHeight height of the bounds.
+     */
+    @Override
+    public void fillOval(int x, int y, int ovalWidth, int ovalHeight) {
+        record(FILL_OVAL, x, y, ovalWidth, ovalHeight, -1);
+        bin(x, y, x + ovalWidth + 1, y + ovalHeight + 1);
+    }
+
+    /**
+     * Records a rectangle outline.
+     *
+     * @param x               left x.
+     * @param y               top y.
+     * @param rectangleWidth  width.
+     * @param rectangleHeight height.
+     */
+    @Override
+    public void drawRectangle(int x, int y, int rectangleWidth, int rectangleHeight) {
+        record(DRAW_RECTANGLE, x, y, rectangleWidth, rectangleHeight, -1);
+        bin(x, y, x + rectangleWidth + 1, y + rectangleHeight + 1);
+    }
+
+    /**
+     * Records a filled rectangle.
+     *
+     * @param x               left x.
+     * @param y               top y.
+     * @param rectangleWidth  width.
+     * @param rectangleHeight height.
+     */
+    @Override
+    public void fillRectangle(int x, int y, int rectangleWidth, int rectangleHeight) {
+        record(FILL_RECTANGLE, x, y, rectangleWidth, rectangleHeight, -1);
+        bin(x, y, x + rectangleWidth, y + rectangleHeight);
+    }
+
+    /**
+     * Records an image, images of unknown size are drawn on every tile.
+     *
+     * @param x   left x.
+     * @param y   top y.
+     * @param img the image.
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        record(DRAW_IMAGE, x, y, 0, 0, object(img));
+        int imageWidth = img.getWidth(null);
+        int imageHeight = img.getHeight(null);
+        if (imageWidth < 0 || imageHeight < 0) {
+            bin(0, 0, width, height);
+        } else {
+            bin(x, y, x + imageWidth, y + imageHeight);
+        }
+    }
+
+    /**
+     * Records a circle outline.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        record(DRAW_CIRCLE, x, y, radius, 0, -1);
+        bin(x - radius, y - radius, x + radius + 1, y + radius + 1);
+    }
+
+    /**
+     * Records a filled circle.
+     *
+     * @param x      x of the center.
+     * @param y      y of the center.
+     * @param radius radius.
+     */
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        record(FILL_CIRCLE, x, y, radius, 0, -1);
+        bin(x - radius, y - radius, x + radius + 1, y + radius + 1);
+    }
+
+    /**
+     * Records a text, in the tiles or, with deferred text, for drawDeferredText.
+     *
+     * @param x        left x.
+     * @param y        baseline y.
+     * @param s        the text.
+     * @param fontSize font size.
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        record(DRAW_TEXT, x, y, fontSize, 0, object(s));
+        if (deferText) {
+            texts.add(commandCount - 1);
+            return;
+        }
+        bin(x, y - FrameBufferSurface.textHeight(fontSize), x + FrameBufferSurface.textWidth(s, fontSize), y);
+    }
+
+    /**
+     * Records a polygon outline, with a copy of the polygon.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        polygon(DRAW_POLYGON, p);
+    }
+
+    /**
+     * Records a filled polygon, with a copy of the polygon.
+     *
+     * @param p the polygon.
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        polygon(FILL_POLYGON, p);
+    }
+
+    private void polygon(int opcode, Polygon p) {
+        Polygon copy = new Polygon(p.xpoints, p.ypoints, p.npoints);
+        record(opcode, 0, 0, 0, 0, object(copy));
+        Rectangle bounds = copy.getBounds();
+        bin(bounds.x, bounds.y, bounds.x + bounds.width + 1, bounds.y + bounds.height + 1);
+    }
+
+    private void record(int opcode, int a, int b, int c, int e, int object) {
+        if ((commandCount + 1) * STRIDE > commands.length) {
+            commands = Arrays.copyOf(commands, 2 * commands.length);
+        }
+        int base = commandCount * STRIDE;
+        commands[base] = opcode;
+        commands[base + 1] = a;
+        commands[base + 2] = b;
+        commands[base + 3] = c;
+        commands[base + 4] = e;
+        commands[base + 5] = color;
+        commands[base + 6] = object;
+        commandCount++;
+    }
+
+    // adds the last command to the tiles its bounds (right and bottom exclusive) overlap.
+    private void bin(int minX, int minY, int maxX, int maxY) {
+        if (maxX <= 0 || maxY <= 0 || minX >= width || minY >= height || minX >= maxX || minY >= maxY) {
+            return;
+        }
+        int fromColumn = Math.max(0, minX) / tileSize;
+        int fromRow = Math.max(0, minY) / tileSize;
+        int toColumn = (Math.min(width, maxX) - 1) / tileSize;
+        int toRow = (Math.min(height, maxY) - 1) / tileSize;
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                bins[row * columns + column].add(commandCount - 1);
+            }
+        }
+    }
+
+    private int object(Object value) {
+        if (objectCount == objects.length) {
+            objects = Arrays.copyOf(objects, 2 * objectCount);
+        }
+        objects[objectCount] = value;
+        return objectCount++;
+    }
+
+    // replays the commands of a tile on its view, in the order they were recorded.
+    private void renderTile(int tile) {
+        FrameBufferSurface d = views[tile];
+        IntList bin = bins[tile];
+        int currentColor = -1;
+        d.setColor(Color.BLACK);
+        for (int i = 0; i < bin.size(); i++) {
+            int base = bin.get(i) * STRIDE;
+            if (commands[base + 5] != currentColor) {
+                currentColor = commands[base + 5];
+                d.setColor(currentColor < 0 ? Color.BLACK : (Color) objects[currentColor]);
+            }
+            int a = commands[base + 1];
+            int b = commands[base + 2];
+            int c = commands[base + 3];
+            int e = commands[base + 4];
+            switch (commands[base]) {
+                case DRAW_LINE:
+                    d.drawLine(a, b, c, e);
+                    break;
+                case DRAW_OVAL:
+                    d.drawOval(a, b, c, e);
+                    break;
+                case FILL_OVAL:
+                    d.fillOval(a, b, c, e);
+                    break;
+                case DRAW_RECTANGLE:
+                    d.drawRectangle(a, b, c, e);
+                    break;
+                case FILL_RECTANGLE:
+                    d.fillRectangle(a, b, c, e);
+                    break;
+                case DRAW_IMAGE:
+                    d.drawImage(a, b, (Image) objects[commands[base + 6]]);
+                    break;
+                case DRAW_CIRCLE:
+                    d.drawCircle(a, b, c);
+                    break;
+                case FILL_CIRCLE:
+                    d.fillCircle(a, b, c);
+                    break;
+                case DRAW_TEXT:
+                    d.drawText(a, b, (String) objects[commands[base + 6]], c);
+                    break;
+                case DRAW_POLYGON:
+                    d.drawPolygon((Polygon) objects[commands[base + 6]]);
+                    break;
+                case FILL_POLYGON:
+                    d.fillPolygon((Polygon) objects[commands[base + 6]]);
+                    break;
+                default:
+                    throw new IllegalStateException("corrupt command " + commands[base]);
+            }
+        }
+    }
+
+    /**
+     * Draws a range of tiles, splitting it in halves until it is a single tile.
+     */
+    private final class TileTask extends RecursiveAction {
+        // constants
+        private static final long serialVersionUID = 1L;
+
+        // fields
+        private final int from;
+        private final int to;
+
+        // constructor
+        private TileTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        // Methods
+
+        /**
+         * Draws the tiles of the range.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    renderTile(from);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for delayed and periodic game events (power-up expiry, respawn delays, block
+ * regeneration, speed-ups), counted in game ticks.
+ * the wheel has LEVELS levels of SLOTS slots. a timer due in less than SLOTS ticks waits in a slot of the
+ * first level, one due later waits in a coarser level and is moved down (cascaded) when its slot comes up, so
+ * scheduling and cancelling are O(1) and a tick only touches the timers that are due, however many wait.
+ * timers due on the same tick fire in the order they were scheduled.
+ */
+public class TimerWheel {
+    // constants
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    // fields
+    private final Handle[][] wheel = new Handle[LEVELS][SLOTS];
+    private final List<Handle> due = new ArrayList<>();
+    private long currentTick = 0;
+    private long nextSequence = 0;
+    private int size = 0;
+
+    // constructor
+
+    /**
+     * Creates an empty wheel at tick 0.
+     */
+    public TimerWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Handle sentinel = new Handle(this, null, 0, 0);
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                wheel[level][slot] = sentinel;
+            }
+        }
+    }
+
+    // Methods
+
+    /**
+     * Schedules a task to run once.
+     *
+     * @param delay number of ticks until the task runs, at least 1.
+     * @param task  the task.
+     * @return handle that cancels the timer.
+     */
+    public Handle schedule(long delay, Runnable task) {
+        return schedulePeriodic(delay, 0, task);
+    }
+
+    /**
+     * Schedules a task to run repeatedly.
+     *
+     * @param delay  number of ticks until the task runs first, at least 1.
+     * @param period number of ticks between runs, 0 to run once.
+     * @param task   the task.
+     * @return handle that cancels the timer.
+     */
+    public Handle schedulePeriodic(long delay, long period, Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("task is null");
+        }
+        if (period < 0) {
+            throw new IllegalArgumentException("negative period " + period);
+        }
+        Handle handle = new Handle(this, task, currentTick + Math.max(1, delay), period);
+        handle.sequence = nextSequence++;
+        insert(handle);
+        size++;
+        return handle;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs the timers that are due, in the order they were scheduled.
+     */
+    public void advance() {
+        currentTick++;
+        // move the timers of the coarser slots that come up now to finer levels.
+        for (int level = 1; level < LEVELS; level++) {
+            long shift = (long) BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            Handle sentinel = wheel[level][(int) ((currentTick >>> shift) & (SLOTS - 1))];
+            Handle h = sentinel.next;
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            while (h != sentinel) {
+                Handle next = h.next;
+                insert(h);
+                h = next;
+            }
+        }
+
+        Handle sentinel = wheel[0][(int) (currentTick & (SLOTS - 1))];
+        Handle h = sentinel.next;
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        // unlink every due timer before any task runs, so a task that cancels a timer due later in this tick
+        // doesn't unlink it through its old neighbours (and the emptied slot's sentinel).
+        while (h != sentinel) {
+            Handle next = h.next;
+            h.previous = null;
+            h.next = null;
+            due.add(h);
+            h = next;
+        }
+        // cascaded timers join the slot after timers scheduled into it directly.
+        due.sort((first, second) -> Long.compare(first.sequence, second.sequence));
+        for (int i = 0; i < due.size(); i++) {
+            h = due.get(i);
+            // an earlier task of this tick might have cancelled it.
+            if (h.cancelled) {
+                continue;
+            }
+            h.task.run();
+            if (h.period > 0 && !h.cancelled) {
+                h.deadline += h.period;
+                h.sequence = nextSequence++;
+                insert(h);
+            } else if (!h.cancelled) {
+                h.done = true;
+                size--;
+            }
+        }
+        due.clear();
+    }
+
+    /**
+     * Advances the wheel by the given number of ticks.
+     *
+     * @param ticks number of ticks.
+     */
+    public void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            advance();
+        }
+    }
+
+    /**
+     * @return number of ticks the wheel advanced since it was created.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return number of timers that are waiting to run.
+     */
+    public int size() {
+        return size;
+    }
+
+    // links a timer into the slot of its deadline.
+    private void insert(Handle h) {
+        long delta = h.deadline - currentTick;
+        // timers beyond the range of the wheel wait in its farthest slot, and are re-inserted from there.
+        long deadline = delta < RANGE ? h.deadline : currentTick + RANGE - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        Handle sentinel = wheel[level][(int) ((deadline >>> (BITS * level)) & (SLOTS - 1))];
+        h.previous = sentinel.previous;
+        h.next = sentinel;
+        sentinel.previous.next = h;
+        sentinel.previous = h;
+    }
+
+    /**
+     * Handle of a scheduled timer, cancels it.
+     */
+    public static final class Handle {
+        // fields
+        private final TimerWheel owner;
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long sequence;
+        private Handle previous;
+        private Handle next;
+        private boolean cancelled = false;
+        private boolean done = false;
+
+        // constructor
+        private Handle(TimerWheel owner, Runnable task, long deadline, long period) {
+            this.owner = owner;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        // Methods
+
+        /**
+         * Cancels the timer, its task won't run (again).
+         *
+         * @return true if the timer was waiting, false if it already ran or was cancelled.
+         */
+        public boolean cancel() {
+            if (cancelled || done) {
+                return false;
+            }
+            cancelled = true;
+            if (previous != null) {
+                previous.next = next;
+                next.previous = previous;
+                previous = null;
+                next = null;
+            }
+            owner.size--;
+            return true;
+        }
+
+        /**
+         * @return true if the timer is waiting to run, false if it ran (once) or was cancelled.
+         */
+        public boolean isPending() {
+            return !cancelled && !done;
+        }
+
+        /**
+         * @return true if the timer was cancelled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return the tick the timer runs at next.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * @return number of ticks between runs, 0 for timers that run once.
+         */
+        public long getPeriod() {
+            return period;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * Collision engine over a bounding volume hierarchy: a binary tree of boxes, each bounding its children,
+ * with up to LEAF_SIZE collidables in every leaf. a query only descends into boxes that overlap it.
+ * the tree is built on the first query after collidables are added, and when a collidable moves the boxes
+ * above it are refitted instead of rebuilding the tree.
+ */
+public class TreeCollisionEngine implements CollisionEngine {
+    // fields
+    private static final int LEAF_SIZE = 4;
+    private static final int NONE = -1;
+
+    private final BoundsTable table = new BoundsTable();
+    private boolean dirty = false;
+    private int removedSinceBuild = 0;
+
+    // nodes of the tree, the root is node 0.
+    private int nodeCount = 0;
+    private double[] nodeMinX = new double[16];
+    private double[] nodeMinY = new double[16];
+    private double[] nodeMaxX = new double[16];
+    private double[] nodeMaxY = new double[16];
+    private int[] nodeLeft = new int[16];
+    private int[] nodeRight = new int[16];
+    private int[] nodeParent = new int[16];
+    private int[] nodeFirst = new int[16];
+    private int[] nodeSize = new int[16];
+
+    // slots of the leaves, every leaf holds a range of it. leafOf is the leaf of every slot.
+    private int[] leafSlots = new int[16];
+    private int[] leafOf = new int[16];
+    private int[] stack = new int[64];
+
+    // Methods
+
+    /**
+     * Adds a collidable, the tree is rebuilt on the next query.
+     *
+     * @param c     collidable to add.
+     * @param order the order in which it was added to the environment.
+     */
+    @Override
+    public void add(Collidable c, int order) {
+        table.add(c, order);
+        dirty = true;
+    }
+
+    /**
+     * Removes a collidable, its leaf keeps a free slot until the tree is rebuilt.
+     *
+     * @param c collidable to remove.
+     * @return true if the collidable was in the engine, false otherwise.
+     */
+    @Override
+    public boolean remove(Collidable c) {
+        if (table.remove(c) < 0) {
+            return false;
+        }
+        removedSinceBuild++;
+        if (removedSinceBuild > table.size()) {
+            dirty = true;
+        }
+        return true;
+    }
+
+    /**
+     * Refits the boxes above every collidable whose bounds changed.
+     */
+    @Override
+    public void refresh() {
+        for (int slot = 0; slot < table.slotLimit(); slot++) {
+            if (table.isUsed(slot) && table.refresh(slot) && !dirty) {
+                refit(leafOf[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return number of collidables in the engine.
+     */
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Adds every collidable of the engine to out.
+     *
+     * @param out buffer to add the collidables to.
+     */
+    @Override
+    public void collectAll(CandidateBuffer out) {
+        table.addAllCandidates(out);
+    }
+
+    /**
+     * Adds to out the collidables of the leaves whose boxes overlap the query box (grown by the radius bucket),
+     * if their inflated bounds overlap it too.
+     *
+     * @param minX   left x of the query box.
+     * @param minY   top y of the query box.
+     * @param maxX   right x of the query box.
+     * @param maxY   bottom y of the query box.
+     * @param radius radius of the queried object, the bounds are inflated by its radius bucket.
+     * @param out    buffer to add the candidates to.
+     */
+    @Override
+    public void query(double minX, double minY, double maxX, double maxY, double radius, CandidateBuffer out) {
+        if (dirty) {
+            build();
+        }
+        if (nodeCount == 0) {
+            return;
+        }
+        double grow = table.selectRadius(radius) + SegmentCast.BOX_PADDING;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeMinX[node] - grow > maxX || minX > nodeMaxX[node] + grow
+                    || nodeMinY[node] - grow > maxY || minY > nodeMaxY[node] + grow) {
+                continue;
+            }
+            if (nodeLeft[node] == NONE) {
+                for (int i = nodeFirst[node]; i < nodeFirst[node] + nodeSize[node]; i++) {
+                    int slot = leafSlots[i];
+                    if (table.isUsed(slot) && table.overlaps(slot, minX, minY, maxX, maxY)) {
+                        table.addCandidate(slot, out);
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            stack[top++] = nodeLeft[node];
+            stack[top++] = nodeRight[node];
+        }
+    }
+
+    // builds the tree from scratch over all the used slots.
+    private void build() {
+        int count = 0;
+        if (leafSlots.length < table.size()) {
+            leafSlots = new int[table.size()];
+        }
+        if (leafOf.length < table.slotLimit()) {
+            leafOf = new int[table.slotLimit()];
+        }
+        for (int slot = 0; slot < table.slotLimit(); slot++) {
+            if (table.isUsed(slot)) {
+                leafSlots[count++] = slot;
+            }
+        }
+        nodeCount = 0;
+        if (count > 0) {
+            buildNode(0, count, NONE);
+        }
+        dirty = false;
+        removedSinceBuild = 0;
+    }
+
+    // builds the node over leafSlots[first, first + size) and returns it.
+    private int buildNode(int first, int size, int parent) {
+        int node = newNode(parent);
+        nodeFirst[node] = first;
+        nodeSize[node] = size;
+        if (size <= LEAF_SIZE) {
+            for (int i = first; i < first + size; i++) {
+                leafOf[leafSlots[i]] = node;
+            }
+            nodeLeft[node] = NONE;
+            nodeRight[node] = NONE;
+            fitLeaf(node);
+            return node;
+        }
+
+        // split the slots at the median of the centers, along the longer side of their bounds.
+        double centersMinX = Double.POSITIVE_INFINITY;
+        double centersMinY = Double.POSITIVE_INFINITY;
+        double centersMaxX = Double.NEGATIVE_INFINITY;
+        double centersMaxY = Double.NEGATIVE_INFINITY;
+        for (int i = first; i < first + size; i++) {
+            centersMinX = Math.min(centersMinX, center(leafSlots[i], true));
+            centersMaxX = Math.max(centersMaxX, center(leafSlots[i], true));
+            centersMinY = Math.min(centersMinY, center(leafSlots[i], false));
+            centersMaxY = Math.max(centersMaxY, center(leafSlots[i], false));
+        }
+        boolean alongX = centersMaxX - centersMinX >= centersMaxY - centersMinY;
+        int half = size / 2;
+        selectMedian(first, first + size - 1, first + half, alongX);
+
+        int left = buildNode(first, half, node);
+        int right = buildNode(first + half, size - half, node);
+        nodeLeft[node] = left;
+        nodeRight[node] = right;
+        fitInner(node);
+        return node;
+    }
+
+    // reorders leafSlots[from, to] so the slot of rank k (by center) is at k, smaller ones before it.
+    private void selectMedian(int from, int to, int k, boolean alongX) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            double pivot = center(leafSlots[(lo + hi) >>> 1], alongX);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (center(leafSlots[i], alongX) < pivot) {
+                    i++;
+                }
+                while (center(leafSlots[j], alongX) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = leafSlots[i];
+                    leafSlots[i] = leafSlots[j];
+                    leafSlots[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double center(int slot, boolean alongX) {
+        if (alongX) {
+            return (table.getMinX(slot) + table.getMaxX(slot)) / 2;
+        }
+        return (table.getMinY(slot) + table.getMaxY(slot)) / 2;
+    }
+
+    // fits the boxes from the given leaf up to the root.
+    private void refit(int leaf) {
+        fitLeaf(leaf);
+        for (int node = nodeParent[leaf]; node != NONE; node = nodeParent[node]) {
+            fitInner(node);
+        }
+    }
+
+    private void fitLeaf(int node) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = nodeFirst[node]; i < nodeFirst[node] + nodeSize[node]; i++) {
+            int slot = leafSlots[i];
+            minX = Math.min(minX, table.getMinX(slot));
+            minY = Math.min(minY, table.getMinY(slot));
+            maxX = Math.max(maxX, table.getMaxX(slot));
+            maxY = Math.max(maxY, table.getMaxY(slot));
+        }
+        setNodeBox(node, minX, minY, maxX, maxY);
+    }
+
+    private void fitInner(int node) {
+        int left = nodeLeft[node];
+        int right = nodeRight[node];
+        setNodeBox(node, Math.min(nodeMinX[left], nodeMinX[right]), Math.min(nodeMinY[left], nodeMinY[right]),
+                Math.max(nodeMaxX[left], nodeMaxX[right]), Math.max(nodeMaxY[left], nodeMaxY[right]));
+    }
+
+    private void setNodeBox(int node, double minX, double minY, double maxX, double maxY) {
+        nodeMinX[node] = minX;
+        nodeMinY[node] = minY;
+        nodeMaxX[node] = maxX;
+        nodeMaxY[node] = maxY;
+    }
+
+    private int newNode(int parent) {
+        if (nodeCount == nodeLeft.length) {
+            int capacity = 2 * nodeCount;
+            nodeMinX = Arrays.copyOf(nodeMinX, capacity);
+            nodeMinY = Arrays.copyOf(nodeMinY, capacity);
+            nodeMaxX = Arrays.copyOf(nodeMaxX, capacity);
+            nodeMaxY = Arrays.copyOf(nodeMaxY, capacity);
+            nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+            nodeRight = Arrays.copyOf(nodeRight, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeFirst = Arrays.copyOf(nodeFirst, capacity);
+            nodeSize = Arrays.copyOf(nodeSize, capacity);
+        }
+        nodeParent[nodeCount] = parent;
+        return nodeCount++;
+    }
+}
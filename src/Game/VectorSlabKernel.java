@@ -0,0 +1,90 @@
+package Game;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Slab kernel that tests several candidates per instruction with the vector API (4 with AVX2, 8 with AVX-512).
+ * it does the same arithmetic as SegmentCast.entryTime in the same order, so the entry times are identical.
+ * casts along an axis (dx or dy of 0) are rare and need the special case of the scalar test, so they are
+ * handed to the scalar kernel.
+ * needs the jdk.incubator.vector module, Game.SlabKernel.create loads it only when the module is present.
+ */
+public class VectorSlabKernel implements SlabKernel {
+    // fields
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private final ScalarSlabKernel scalar = new ScalarSlabKernel();
+
+    // Methods
+
+    /**
+     * Computes the entry time of the cast segment into the bounds of every candidate.
+     *
+     * @param cast       the cast segment.
+     * @param candidates the candidates, with their (inflated) bounds.
+     * @param out        entry time of every candidate, SegmentCast.NO_HIT for the ones the segment misses.
+     * @return index of the candidate with the smallest entry time, or -1 if the segment misses all of them.
+     */
+    @Override
+    public int entryTimes(SegmentCast cast, CandidateBuffer candidates, double[] out) {
+        int size = candidates.size();
+        if (cast.getDx() == 0 || cast.getDy() == 0 || size < SPECIES.length()) {
+            return scalar.entryTimes(cast, candidates, out);
+        }
+        double[] minXs = candidates.minXArray();
+        double[] minYs = candidates.minYArray();
+        double[] maxXs = candidates.maxXArray();
+        double[] maxYs = candidates.maxYArray();
+        double padding = SegmentCast.BOX_PADDING;
+        DoubleVector startX = DoubleVector.broadcast(SPECIES, cast.getStartX());
+        DoubleVector startY = DoubleVector.broadcast(SPECIES, cast.getStartY());
+        DoubleVector invDx = DoubleVector.broadcast(SPECIES, cast.getInvDx());
+        DoubleVector invDy = DoubleVector.broadcast(SPECIES, cast.getInvDy());
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+        DoubleVector noHit = DoubleVector.broadcast(SPECIES, SegmentCast.NO_HIT);
+        DoubleVector firstTimes = noHit;
+
+        int upper = SPECIES.loopBound(size);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, minXs, i).sub(padding).sub(startX).mul(invDx);
+            DoubleVector x2 = DoubleVector.fromArray(SPECIES, maxXs, i).add(padding).sub(startX).mul(invDx);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, minYs, i).sub(padding).sub(startY).mul(invDy);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, maxYs, i).add(padding).sub(startY).mul(invDy);
+            DoubleVector tMin = zero.max(x1.min(x2)).max(y1.min(y2));
+            DoubleVector tMax = one.min(x1.max(x2)).min(y1.max(y2));
+            VectorMask<Double> miss = tMin.compare(VectorOperators.GT, tMax);
+            DoubleVector times = tMin.blend(noHit, miss);
+            times.intoArray(out, i);
+            firstTimes = firstTimes.min(times);
+        }
+
+        // the smallest time of the vector part, then the index it first appears at.
+        double firstTime = firstTimes.reduceLanes(VectorOperators.MIN);
+        int first = -1;
+        if (firstTime != SegmentCast.NO_HIT) {
+            for (int k = 0; k < upper; k++) {
+                if (out[k] == firstTime) {
+                    first = k;
+                    break;
+                }
+            }
+        }
+        int tailFirst = scalar.entryTimes(cast, candidates, out, i);
+        if (tailFirst >= 0 && (first < 0 || out[tailFirst] < firstTime)) {
+            first = tailFirst;
+        }
+        return first;
+    }
+
+    /**
+     * @return short name of the kernel, with its number of lanes.
+     */
+    @Override
+    public String getName() {
+        return "vector x" + SPECIES.length();
+    }
+}
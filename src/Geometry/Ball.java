@@ -1,6 +1,7 @@
 package Geometry;
 
 import Game.CollisionInfo;
+import Game.CollisionResult;
 import Game.GameEnvironment;
 import Game.Sprite;
 import Game.Game;
@@ -19,6 +20,7 @@ public class Ball implements Sprite {
     private Color color;
     private Velocity velocity = new Velocity(0, 0);
     private GameEnvironment gameEnvironment;
+    private boolean batchStepped = false;
 
     // ---------------- Constructors ----------------
 
@@ -108,6 +110,24 @@ public class Ball implements Sprite {
         return (int) center.getY();
     }
 
+    /**
+     * Returns the exact x-coordinate of the center, without copying it.
+     *
+     * @return the x-coordinate
+     */
+    public double getCenterX() {
+        return center.getX();
+    }
+
+    /**
+     * Returns the exact y-coordinate of the center, without copying it.
+     *
+     * @return the y-coordinate
+     */
+    public double getCenterY() {
+        return center.getY();
+    }
+
     /**
      * Returns the radius (size) of the ball.
      *
@@ -208,6 +228,25 @@ public class Ball implements Sprite {
         this.gameEnvironment = gameEnvironment;
     }
 
+    /**
+     * Sets whether the ball is moved by a batch query of its game (see Game.Game), instead of by itself
+     * when time passes.
+     *
+     * @param batchStepped true if the game moves the ball, false if the ball moves itself.
+     */
+    public void setBatchStepped(boolean batchStepped) {
+        this.batchStepped = batchStepped;
+    }
+
+    /**
+     * Checks if the ball is moved by a batch query of its game.
+     *
+     * @return true if the game moves the ball, false if the ball moves itself.
+     */
+    public boolean isBatchStepped() {
+        return batchStepped;
+    }
+
     // ---------------- Drawing & Time Behavior ----------------
 
     /**
@@ -225,31 +264,61 @@ public class Ball implements Sprite {
     }
 
     /**
-     * Notify the ball that time has passed, move it a step.
+     * Notify the ball that time has passed, move it a step (unless its game moves it).
      */
     public void timePassed() {
-        this.moveOneStep();
+        if (!batchStepped) {
+            this.moveOneStep();
+        }
     }
 
     // ---------------- Movement ----------------
 
     /**
      * Moves the ball one step arbitrary to collision in gameEnvironment.
+     * the whole ball is swept along its trajectory, so it stops when its edge (not its centre) touches a collidable.
      */
     public void moveOneStep() {
         Point curPosition = this.getCenter();
         Line trajectory = new Line(curPosition, this.velocity.applyToPoint(curPosition));
-        CollisionInfo closestCollision = gameEnvironment.getClosestCollision(trajectory);
+        applyCollision(trajectory, gameEnvironment.getClosestCollision(trajectory, this.size));
+    }
+
+    /**
+     * Moves the ball one step using the result of a batch query of its trajectory
+     * (see writeTrajectory).
+     *
+     * @param collision result of the batch query for this ball's trajectory.
+     */
+    public void moveOneStep(CollisionResult collision) {
+        Point curPosition = this.getCenter();
+        Line trajectory = new Line(curPosition, this.velocity.applyToPoint(curPosition));
+        applyCollision(trajectory, collision.toCollisionInfo());
+    }
+
+    /**
+     * Writes the trajectory of the next step to segments, as x1, y1, x2, y2 starting at offset.
+     *
+     * @param segments packed trajectories of a batch query.
+     * @param offset   index of the first coordinate of this ball's trajectory.
+     */
+    public void writeTrajectory(double[] segments, int offset) {
+        segments[offset] = center.getX();
+        segments[offset + 1] = center.getY();
+        segments[offset + 2] = center.getX() + velocity.getDx();
+        segments[offset + 3] = center.getY() + velocity.getDy();
+    }
+
+    // moves the ball along trajectory, stopping before the closest collision if there is one.
+    // the collision point is the centre of the ball when it touches the collidable.
+    private void applyCollision(Line trajectory, CollisionInfo closestCollision) {
         if (closestCollision == null) {
-            this.setCenter(this.velocity.applyToPoint(curPosition));
+            this.setCenter(trajectory.end());
             return;
         }
         // move Geometry.Ball slightly before hitting the wall and update velocity.
-
-
         this.setCenter(trajectory.pointAtDistance(closestCollision.collisionPoint(), 0.1));
-        this.setVelocity(closestCollision.collisionObject().hit(this, closestCollision.collisionPoint(),
-                this.velocity));
+        this.setVelocity(closestCollision.collisionObject().hit(this, closestCollision, this.velocity));
     }
 
 
@@ -260,7 +329,7 @@ public class Ball implements Sprite {
      * @param game game that is being played
      */
     public void removeFromGame(Game game) {
-        game.removeSprite(this);
+        game.removeBall(this);
         this.setGameEnvironment(null);
     }
 }
@@ -317,11 +317,12 @@ public class Line {
             return null;
         }
         Point closest = intersections.get(0);
-        double minDistance = closest.distance(this.start);
+        double minDistance = closest.distanceSquared(this.start);
         for (Point point : intersections) {
-            if (point.distance(this.start) < minDistance) {
+            double distance = point.distanceSquared(this.start);
+            if (distance < minDistance) {
                 closest = point;
-                minDistance = closest.distance(this.start);
+                minDistance = distance;
             }
         }
         return closest;
@@ -340,12 +341,13 @@ public class Line {
             return null;
         }
         CollisionInfo closest = intersections.get(0);
-        double minDistance = closest.collisionPoint().distance(this.start);
+        double minDistance = closest.collisionPoint().distanceSquared(this.start);
 
         for (CollisionInfo curCol : intersections) {
-            if (curCol.collisionPoint().distance(this.start) < minDistance) {
+            double distance = curCol.collisionPoint().distanceSquared(this.start);
+            if (distance < minDistance) {
                 closest = curCol;
-                minDistance = closest.collisionPoint().distance(this.start);
+                minDistance = distance;
             }
         }
         return closest;
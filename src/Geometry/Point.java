@@ -26,9 +26,19 @@ public class Point {
      * @return the distance
      */
     public double distance(Point other) {
-        double disX = Math.abs(this.x - other.getX());
-        double disY = Math.abs(this.y - other.getY());
-        return (Math.sqrt(Math.pow(disX, 2) + Math.pow(disY, 2)));
+        return Math.sqrt(this.distanceSquared(other));
+    }
+
+    /**
+     * Calculates the squared distance between this point and another.
+     * cheaper than distance, and orders points the same way.
+     * @param other the other point
+     * @return the squared distance
+     */
+    public double distanceSquared(Point other) {
+        double disX = this.x - other.getX();
+        double disY = this.y - other.getY();
+        return disX * disX + disY * disY;
     }
 
     /**
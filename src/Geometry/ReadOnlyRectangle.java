@@ -0,0 +1,93 @@
+package Geometry;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * The reading side of a Geometry.Rectangle: its bounds, color and geometry, without any way to change it.
+ * Geometry.Rectangle implements it, and Rectangle.readOnlyView() hands out a view of a rectangle that always shows
+ * its current state.
+ */
+public interface ReadOnlyRectangle {
+
+    /**
+     * Returns a copy of the top-left point of the rectangle.
+     *
+     * @return the top-left point
+     */
+    Point getUpperLeft();
+
+    /**
+     * @return the height of the rectangle
+     */
+    double getHeight();
+
+    /**
+     * @return the width of the rectangle
+     */
+    double getWidth();
+
+    /**
+     * @return the smallest x in the rectangle
+     */
+    double getMinX();
+
+    /**
+     * @return the smallest y in the rectangle
+     */
+    double getMinY();
+
+    /**
+     * @return the biggest x in the rectangle
+     */
+    double getMaxX();
+
+    /**
+     * @return the biggest y in the rectangle
+     */
+    double getMaxY();
+
+    /**
+     * @return a counter that is increased whenever the rectangle is moved or resized
+     */
+    int getBoundsVersion();
+
+    /**
+     * @return the color of the rectangle
+     */
+    Color getColor();
+
+    /**
+     * @return copies of the corners of the rectangle: top-left, top-right, bottom-right, bottom-left.
+     */
+    Point[] getCorners();
+
+    /**
+     * @return the sides of the rectangle: top, right, bottom, left.
+     */
+    Line[] getSides();
+
+    /**
+     * @param line line to intersect with the rectangle.
+     * @return intersection points of the line with the sides of the rectangle.
+     */
+    List<Point> intersectionPoints(Line line);
+
+    /**
+     * @param point point to check.
+     * @return true if the point is in the rectangle (including its sides), false otherwise.
+     */
+    boolean contains(Point point);
+
+    /**
+     * @param drawSurface the surface on which to draw the rectangle
+     */
+    void drawOn(DrawSurface drawSurface);
+
+    /**
+     * @return a modifiable copy of the rectangle
+     */
+    Rectangle copy();
+}
@@ -10,8 +10,11 @@ import biuoop.DrawSurface;
 /**
  * The Geometry.Rectangle class represents a rectangle defined by its top-left corner (upperLeft),
  * width, height, and color. It can be drawn on a DrawSurface.
+ * the corners are computed once and cached until the rectangle is moved or resized
+ * (setUpperLeft, setWidth, setHeight). points are mutable, so the top-left point and the cached corners are never
+ * handed out, only copies of them.
  */
-public class Rectangle {
+public class Rectangle implements ReadOnlyRectangle {
 
     // ---------------- Fields ----------------
 
@@ -20,6 +23,13 @@ public class Rectangle {
     private double width;
     private Color color;
 
+    // derived geometry, corners are null until they are first asked for.
+    private double maxX;
+    private double maxY;
+    private Point[] corners;
+    private int boundsVersion = 0;
+    private RectangleView readOnlyView;
+
     // ---------------- Constructors ----------------
 
     /**
@@ -31,10 +41,11 @@ public class Rectangle {
      * @param color     the color of the rectangle
      */
     public Rectangle(Point upperLeft, double width, double height, Color color) {
-        this.upperLeft = upperLeft;
+        this.upperLeft = upperLeft.copy();
         this.height = height;
         this.width = width;
         this.color = color;
+        invalidate();
     }
 
     /**
@@ -45,10 +56,7 @@ public class Rectangle {
      * @param height    the height of the rectangle
      */
     public Rectangle(Point upperLeft, double width, double height) {
-        this.upperLeft = upperLeft;
-        this.height = height;
-        this.width = width;
-        this.color = Utility.getRandomColor();
+        this(upperLeft, width, height, Utility.getRandomColor());
     }
 
     /**
@@ -82,12 +90,13 @@ public class Rectangle {
     // ---------------- Accessors & Mutators ----------------
 
     /**
-     * Returns the top-left point (upperLeft) of the rectangle.
+     * Returns a copy of the top-left point (upperLeft) of the rectangle, move the rectangle with setUpperLeft.
      *
      * @return the top-left point
      */
+    @Override
     public Point getUpperLeft() {
-        return upperLeft;
+        return upperLeft.copy();
     }
 
     /**
@@ -97,6 +106,7 @@ public class Rectangle {
      */
     public void setUpperLeft(Point upperLeft) {
         this.upperLeft = upperLeft.copy();
+        invalidate();
     }
 
     /**
@@ -107,6 +117,7 @@ public class Rectangle {
      */
     public void setUpperLeft(double x, double y) {
         this.upperLeft = new Point(x, y);
+        invalidate();
     }
 
 
@@ -115,6 +126,7 @@ public class Rectangle {
      *
      * @return the height
      */
+    @Override
     public double getHeight() {
         return height;
     }
@@ -126,6 +138,7 @@ public class Rectangle {
      */
     public void setHeight(double height) {
         this.height = height;
+        invalidate();
     }
 
     /**
@@ -133,6 +146,7 @@ public class Rectangle {
      *
      * @return the width
      */
+    @Override
     public double getWidth() {
         return width;
     }
@@ -144,6 +158,57 @@ public class Rectangle {
      */
     public void setWidth(double width) {
         this.width = width;
+        invalidate();
+    }
+
+    /**
+     * Returns the left x of the rectangle.
+     *
+     * @return the smallest x in the rectangle
+     */
+    @Override
+    public double getMinX() {
+        return upperLeft.getX();
+    }
+
+    /**
+     * Returns the top y of the rectangle.
+     *
+     * @return the smallest y in the rectangle
+     */
+    @Override
+    public double getMinY() {
+        return upperLeft.getY();
+    }
+
+    /**
+     * Returns the right x of the rectangle.
+     *
+     * @return the biggest x in the rectangle
+     */
+    @Override
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Returns the bottom y of the rectangle.
+     *
+     * @return the biggest y in the rectangle
+     */
+    @Override
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Returns a counter that is increased whenever the rectangle is moved or resized.
+     *
+     * @return the bounds version of the rectangle
+     */
+    @Override
+    public int getBoundsVersion() {
+        return boundsVersion;
     }
 
     /**
@@ -151,6 +216,7 @@ public class Rectangle {
      *
      * @return the color
      */
+    @Override
     public Color getColor() {
         return color;
     }
@@ -173,6 +239,7 @@ public class Rectangle {
      * @param line line to intersect with rectangle.
      * @return Array List of intersection points of the line with sides. list can be empty if line isn't intersecting.
      */
+    @Override
     public java.util.List<Point> intersectionPoints(Line line) {
         List<Point> intersections = new ArrayList<>();
         Line[] sides = this.getSides();
@@ -214,16 +281,18 @@ public class Rectangle {
     /**
      * Returns an array of the four corners of the rectangle in the following order:
      * top-left, top-right, bottom-right, bottom-left.
+     * the points are copies, changing them doesn't change the rectangle.
      *
      * @return an array of 4 points representing the corners of the rectangle
      */
+    @Override
     public Point[] getCorners() {
-        Point[] corners = new Point[4];
-        corners[0] = this.upperLeft;
-        corners[1] = new Point(this.upperLeft.getX() + width, this.upperLeft.getY());
-        corners[2] = new Point(this.upperLeft.getX() + width, this.upperLeft.getY() + height);
-        corners[3] = new Point(this.upperLeft.getX(), this.upperLeft.getY() + height);
-        return corners;
+        Point[] cornerPoints = cachedCorners();
+        Point[] copies = new Point[cornerPoints.length];
+        for (int i = 0; i < cornerPoints.length; i++) {
+            copies[i] = cornerPoints[i].copy();
+        }
+        return copies;
     }
 
     /**
@@ -232,21 +301,35 @@ public class Rectangle {
      *
      * @return an array of 4 lines representing the rectangle's sides.
      */
+    @Override
     public Line[] getSides() {
+        Point[] cornerPoints = cachedCorners();
         Line[] sides = new Line[4];
-        Point[] corners = this.getCorners();
-        sides[0] = new Line(corners[0], corners[1]);
-        sides[1] = new Line(corners[1], corners[2]);
-        sides[2] = new Line(corners[2], corners[3]);
-        sides[3] = new Line(corners[3], corners[0]);
+        sides[0] = new Line(cornerPoints[0], cornerPoints[1]);
+        sides[1] = new Line(cornerPoints[1], cornerPoints[2]);
+        sides[2] = new Line(cornerPoints[2], cornerPoints[3]);
+        sides[3] = new Line(cornerPoints[3], cornerPoints[0]);
         return sides;
     }
 
+    // the cached corners, computed on first use. never handed out, lines copy the points they are made of.
+    private Point[] cachedCorners() {
+        if (corners == null) {
+            corners = new Point[4];
+            corners[0] = this.upperLeft.copy();
+            corners[1] = new Point(this.upperLeft.getX() + width, this.upperLeft.getY());
+            corners[2] = new Point(this.upperLeft.getX() + width, this.upperLeft.getY() + height);
+            corners[3] = new Point(this.upperLeft.getX(), this.upperLeft.getY() + height);
+        }
+        return corners;
+    }
+
     /**
      * Draws the rectangle on the given DrawSurface.
      *
      * @param drawSurface the surface on which to draw the rectangle
      */
+    @Override
     public void drawOn(DrawSurface drawSurface) {
         if (drawSurface == null) {
             return;
@@ -255,10 +338,24 @@ public class Rectangle {
         drawSurface.fillRectangle((int) upperLeft.getX(), (int) upperLeft.getY(), (int) width, (int) height);
     }
 
+    /**
+     * Returns a read-only view of this rectangle, that follows its changes and refuses to change it.
+     * the view is created once, so handing it out costs no allocation (unlike copy).
+     *
+     * @return read-only view of this rectangle.
+     */
+    public ReadOnlyRectangle readOnlyView() {
+        if (readOnlyView == null) {
+            readOnlyView = new RectangleView(this);
+        }
+        return readOnlyView;
+    }
+
     /**
      * creates a copy of current rectangle and returns it.
      * @return copy of this rectangle.
      */
+    @Override
     public Rectangle copy() {
         return new Rectangle(upperLeft, width, height, color);
     }
@@ -269,16 +366,25 @@ public class Rectangle {
      * @param point Geometry.Point to check if is in the rectangle.
      * @return true if is in the rectangle, false otherwise.
      */
+    @Override
     public boolean contains(Point point) {
         double x = point.getX();
         double y = point.getY();
 
         double left = upperLeft.getX();
-        double right = upperLeft.getX() + width;
+        double right = maxX;
         double top = upperLeft.getY();
-        double bottom = upperLeft.getY() + height;
+        double bottom = maxY;
 
         return Utility.doubleLE(left, x) && Utility.doubleLE(x, right)
                 && Utility.doubleLE(top, y) && Utility.doubleLE(y, bottom);
     }
+
+    // drops the cached corners, and recomputes the edges after a move or resize.
+    private void invalidate() {
+        this.maxX = upperLeft.getX() + width;
+        this.maxY = upperLeft.getY() + height;
+        this.corners = null;
+        this.boundsVersion++;
+    }
 }
@@ -0,0 +1,150 @@
+package Geometry;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * A read-only view of a Geometry.Rectangle: reads go to the viewed rectangle, so the view always shows its current
+ * state. the view has no setters and can't be cast back to the rectangle. get one with Rectangle.readOnlyView().
+ */
+final class RectangleView implements ReadOnlyRectangle {
+    // fields
+    private final Rectangle source;
+
+    // constructor
+
+    /**
+     * Creates a read-only view of the given rectangle.
+     *
+     * @param source the rectangle to view.
+     */
+    RectangleView(Rectangle source) {
+        this.source = source;
+    }
+
+    // Methods
+
+    /**
+     * @return a copy of the top-left point of the viewed rectangle
+     */
+    @Override
+    public Point getUpperLeft() {
+        return source.getUpperLeft();
+    }
+
+    /**
+     * @return the height of the viewed rectangle
+     */
+    @Override
+    public double getHeight() {
+        return source.getHeight();
+    }
+
+    /**
+     * @return the width of the viewed rectangle
+     */
+    @Override
+    public double getWidth() {
+        return source.getWidth();
+    }
+
+    /**
+     * @return the left x of the viewed rectangle
+     */
+    @Override
+    public double getMinX() {
+        return source.getMinX();
+    }
+
+    /**
+     * @return the top y of the viewed rectangle
+     */
+    @Override
+    public double getMinY() {
+        return source.getMinY();
+    }
+
+    /**
+     * @return the right x of the viewed rectangle
+     */
+    @Override
+    public double getMaxX() {
+        return source.getMaxX();
+    }
+
+    /**
+     * @return the bottom y of the viewed rectangle
+     */
+    @Override
+    public double getMaxY() {
+        return source.getMaxY();
+    }
+
+    /**
+     * @return the bounds version of the viewed rectangle
+     */
+    @Override
+    public int getBoundsVersion() {
+        return source.getBoundsVersion();
+    }
+
+    /**
+     * @return the color of the viewed rectangle
+     */
+    @Override
+    public Color getColor() {
+        return source.getColor();
+    }
+
+    /**
+     * @return the corners of the viewed rectangle (see Rectangle.getCorners)
+     */
+    @Override
+    public Point[] getCorners() {
+        return source.getCorners();
+    }
+
+    /**
+     * @return the sides of the viewed rectangle (see Rectangle.getSides)
+     */
+    @Override
+    public Line[] getSides() {
+        return source.getSides();
+    }
+
+    /**
+     * @param line line to intersect with the viewed rectangle.
+     * @return intersection points of the line with the sides of the viewed rectangle.
+     */
+    @Override
+    public List<Point> intersectionPoints(Line line) {
+        return source.intersectionPoints(line);
+    }
+
+    /**
+     * @param point point to check.
+     * @return true if the point is in the viewed rectangle, false otherwise.
+     */
+    @Override
+    public boolean contains(Point point) {
+        return source.contains(point);
+    }
+
+    /**
+     * @param drawSurface the surface on which to draw the viewed rectangle
+     */
+    @Override
+    public void drawOn(DrawSurface drawSurface) {
+        source.drawOn(drawSurface);
+    }
+
+    /**
+     * @return a modifiable copy of the viewed rectangle
+     */
+    @Override
+    public Rectangle copy() {
+        return source.copy();
+    }
+}
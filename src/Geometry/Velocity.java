@@ -61,7 +61,16 @@ public class Velocity {
      * @return Speed value.
      */
     public double getSpeed() {
-        return Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * calculates the squared speed of the velocity, cheaper than getSpeed for comparisons.
+     *
+     * @return squared speed value.
+     */
+    public double lengthSquared() {
+        return dx * dx + dy * dy;
     }
 
     /**
@@ -88,6 +97,35 @@ public class Velocity {
         return new Point(p.getX() + this.getDx(), p.getY() + this.getDy());
     }
 
+    /**
+     * Creates a velocity with the same direction and the given speed.
+     * a velocity of speed 0 has no direction, and is returned as it is.
+     *
+     * @param speed the speed of the new velocity.
+     * @return a new velocity with the given speed.
+     */
+    public Velocity scaleTo(double speed) {
+        double lengthSquared = lengthSquared();
+        if (lengthSquared == 0) {
+            return this.copy();
+        }
+        double scale = speed / Math.sqrt(lengthSquared);
+        return new Velocity(dx * scale, dy * scale);
+    }
+
+    /**
+     * Creates the velocity reflected off a surface with the given unit normal.
+     * only the part of the velocity along the normal is flipped.
+     *
+     * @param normalX x part of the unit normal of the surface.
+     * @param normalY y part of the unit normal of the surface.
+     * @return a new, reflected velocity.
+     */
+    public Velocity reflect(double normalX, double normalY) {
+        double twiceAlong = 2 * (dx * normalX + dy * normalY);
+        return new Velocity(dx - twiceAlong * normalX, dy - twiceAlong * normalY);
+    }
+
     /**
      * Creates a new velocity object with same attributes.
      *